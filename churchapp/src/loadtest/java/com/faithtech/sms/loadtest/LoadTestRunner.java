@@ -0,0 +1,221 @@
+package com.faithtech.sms.loadtest;
+
+import com.faithtech.sms.controller.IntakeController;
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.entity.Workflow;
+import com.faithtech.sms.data.entity.WorkflowStep;
+import com.faithtech.sms.data.repository.TenantRepository;
+import com.faithtech.sms.data.repository.WorkflowRepository;
+import com.faithtech.sms.data.repository.WorkflowStepRepository;
+import com.faithtech.sms.service.TenantRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for the intake-to-first-text path ({@code loadtest} profile).
+ * <p>
+ * Seeds {@code loadtest.tenants} tenants with a one-step workflow, posts {@code loadtest.visitors} intake forms through
+ * {@link IntakeController} from a pool of threads, then waits for the workflow scheduler to text every visitor through
+ * the {@link SimulatedSmsGateway}. Logs intake throughput, time-to-first-text percentiles (form post to gateway
+ * accept) and Hibernate's statement counts for the run.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private final IntakeController intakeController;
+    private final SimulatedSmsGateway gateway;
+    private final TenantRegistry tenantRegistry;
+    private final TenantRepository tenantRepository;
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowStepRepository workflowStepRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Statistics statistics;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${loadtest.tenants:10}")
+    private int tenantCount;
+
+    @Value("${loadtest.visitors:10000}")
+    private int visitorCount;
+
+    @Value("${loadtest.intake-threads:16}")
+    private int intakeThreads;
+
+    // Stop waiting once no visitor has received a first text for this long (e.g. the rest failed permanently)
+    @Value("${loadtest.idle-timeout-seconds:30}")
+    private long idleTimeoutSeconds;
+
+    @Value("${loadtest.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    public LoadTestRunner(IntakeController intakeController,
+            SimulatedSmsGateway gateway,
+            TenantRegistry tenantRegistry,
+            TenantRepository tenantRepository,
+            WorkflowRepository workflowRepository,
+            WorkflowStepRepository workflowStepRepository,
+            TransactionTemplate transactionTemplate,
+            EntityManagerFactory entityManagerFactory,
+            ConfigurableApplicationContext context) {
+        this.intakeController = intakeController;
+        this.gateway = gateway;
+        this.tenantRegistry = tenantRegistry;
+        this.tenantRepository = tenantRepository;
+        this.workflowRepository = workflowRepository;
+        this.workflowStepRepository = workflowStepRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        List<Tenant> tenants = seedTenants();
+        log.info("Load test: {} visitors across {} tenants, {} intake threads",
+                visitorCount, tenants.size(), intakeThreads);
+        statistics.clear();
+
+        long[] submittedNanos = new long[visitorCount];
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService intake = Executors.newFixedThreadPool(intakeThreads);
+        long intakeStart = System.nanoTime();
+        for (int i = 0; i < visitorCount; i++) {
+            int visitor = i;
+            intake.execute(() -> {
+                Tenant tenant = tenants.get(visitor % tenants.size());
+                submittedNanos[visitor] = System.nanoTime();
+                try {
+                    intakeController.submitForm(tenant.getSlug(), "Load", "Visitor" + visitor, phoneOf(visitor));
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                    submittedNanos[visitor] = 0;
+                }
+            });
+        }
+        intake.shutdown();
+        intake.awaitTermination(1, TimeUnit.HOURS);
+        long intakeNanos = System.nanoTime() - intakeStart;
+        log.info("Intake: {} submissions in {} ms, {}/s, {} rejected", visitorCount,
+                TimeUnit.NANOSECONDS.toMillis(intakeNanos),
+                String.format("%.0f", visitorCount / (intakeNanos / 1e9)), rejected.get());
+
+        awaitFirstTexts(visitorCount - rejected.get());
+        report(tenants, submittedNanos, System.nanoTime() - intakeStart);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private List<Tenant> seedTenants() {
+        return transactionTemplate.execute(tx -> {
+            List<Tenant> tenants = new ArrayList<>(tenantCount);
+            for (int t = 0; t < tenantCount; t++) {
+                String slug = "loadtest-" + t;
+                Tenant existing = tenantRegistry.findBySlug(slug).orElse(null);
+                if (existing != null) {
+                    tenants.add(existing);
+                    continue;
+                }
+                Tenant tenant = new Tenant();
+                tenant.setName("Load Test Church " + t);
+                tenant.setSlug(slug);
+                tenant.setTwilioPhoneNumber(String.format("+1800%07d", t));
+                tenantRepository.save(tenant);
+
+                Workflow workflow = new Workflow();
+                workflow.setTenant(tenant);
+                workflow.setName("Load Test Workflow");
+                workflow.setDefault(true);
+                workflowRepository.save(workflow);
+
+                WorkflowStep welcome = new WorkflowStep();
+                welcome.setWorkflow(workflow);
+                welcome.setStepOrder(1);
+                welcome.setDelayMinutes(0);
+                welcome.setMessageTemplate("Hi {firstName}, thanks for visiting {churchName}!");
+                workflowStepRepository.save(welcome);
+                tenants.add(tenant);
+            }
+            return tenants;
+        });
+    }
+
+    private void awaitFirstTexts(int expected) throws InterruptedException {
+        int last = -1;
+        long lastProgress = System.nanoTime();
+        while (gateway.firstTexts() < expected) {
+            int current = gateway.firstTexts();
+            if (current != last) {
+                last = current;
+                lastProgress = System.nanoTime();
+            } else if (System.nanoTime() - lastProgress > TimeUnit.SECONDS.toNanos(idleTimeoutSeconds)) {
+                log.warn("No progress for {} s; {} of {} visitors texted", idleTimeoutSeconds, current, expected);
+                return;
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private void report(List<Tenant> tenants, long[] submittedNanos, long totalNanos) {
+        long[] latencies = new long[submittedNanos.length];
+        int texted = 0;
+        for (int i = 0; i < submittedNanos.length; i++) {
+            if (submittedNanos[i] == 0) {
+                continue;
+            }
+            Tenant tenant = tenants.get(i % tenants.size());
+            Long sentAt = gateway.firstSentNanos(tenant.getTwilioPhoneNumber(), phoneOf(i));
+            if (sentAt != null) {
+                latencies[texted++] = sentAt - submittedNanos[i];
+            }
+        }
+        long[] sorted = Arrays.copyOf(latencies, texted);
+        Arrays.sort(sorted);
+        log.info("First texts: {} of {} visitors in {} ms; {} gateway sends, {} gateway failures", texted,
+                submittedNanos.length, TimeUnit.NANOSECONDS.toMillis(totalNanos), gateway.sent(), gateway.failed());
+        log.info("Time to first text (ms): p50={} p90={} p99={} max={}", percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.90), percentileMillis(sorted, 0.99), percentileMillis(sorted, 1.0));
+        long statements = statistics.getPrepareStatementCount();
+        log.info("Database: {} JDBC statements ({} per visitor), {} queries, {} inserts, {} updates, {} loads, "
+                        + "{} transactions",
+                statements, String.format("%.2f", statements / (double) Math.max(1, submittedNanos.length)),
+                statistics.getQueryExecutionCount(), statistics.getEntityInsertCount(),
+                statistics.getEntityUpdateCount(), statistics.getEntityLoadCount(), statistics.getTransactionCount());
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+    // Unique per visitor; area codes 201-998 keep the numbers valid for normalization
+    private static String phoneOf(int visitor) {
+        return String.format("+1%03d%07d", 201 + visitor / 10_000_000, visitor % 10_000_000);
+    }
+}
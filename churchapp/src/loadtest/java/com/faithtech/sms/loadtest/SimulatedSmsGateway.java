@@ -0,0 +1,91 @@
+package com.faithtech.sms.loadtest;
+
+import com.faithtech.sms.service.SmsDeliveryException;
+import com.faithtech.sms.service.SmsTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the SMS gateway ({@code sms.transport=simulated}), used by the load test.
+ * <p>
+ * Each call blocks for the configured latency plus jitter, like a real HTTP call, then succeeds or fails. Outcomes are
+ * derived from the seed, the number pair and the attempt number, so a given run sees the same failures each time.
+ * Records when each number pair first received a text.
+ */
+@Service
+@ConditionalOnProperty(name = "sms.transport", havingValue = "simulated")
+public class SimulatedSmsGateway implements SmsTransport {
+
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    private final Map<String, Long> firstSentNanos = new ConcurrentHashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Value("${sms.simulated.latency-ms:50}")
+    private long latencyMs;
+
+    @Value("${sms.simulated.latency-jitter-ms:50}")
+    private long jitterMs;
+
+    @Value("${sms.simulated.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${sms.simulated.retryable-failure-rate:0.0}")
+    private double retryableFailureRate;
+
+    @Value("${sms.simulated.seed:42}")
+    private long seed;
+
+    @Override
+    public String send(String from, String to, String body) {
+        String key = key(from, to);
+        int attempt = attempts.merge(key, 1, Integer::sum);
+        SplittableRandom random = new SplittableRandom(seed ^ (key.hashCode() * 31L + attempt));
+        try {
+            Thread.sleep(latencyMs + random.nextLong(jitterMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmsDeliveryException("Interrupted", true, e);
+        }
+        double roll = random.nextDouble();
+        if (roll < failureRate) {
+            failed.incrementAndGet();
+            throw new SmsDeliveryException("Simulated rejection", false);
+        }
+        if (roll < failureRate + retryableFailureRate) {
+            failed.incrementAndGet();
+            throw new SmsDeliveryException("Simulated gateway error", true);
+        }
+        firstSentNanos.putIfAbsent(key, System.nanoTime());
+        return "SMsim" + sent.incrementAndGet();
+    }
+
+    static String key(String from, String to) {
+        return from + "|" + to;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} of the first successful send between the two numbers, or null
+     */
+    Long firstSentNanos(String from, String to) {
+        return firstSentNanos.get(key(from, to));
+    }
+
+    int firstTexts() {
+        return firstSentNanos.size();
+    }
+
+    long sent() {
+        return sent.get();
+    }
+
+    long failed() {
+        return failed.get();
+    }
+}
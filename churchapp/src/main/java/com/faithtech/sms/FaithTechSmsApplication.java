@@ -2,29 +2,45 @@ package com.faithtech.sms;
 
 import com.faithtech.sms.data.entity.Tenant;
 import com.faithtech.sms.data.entity.Workflow;
+import com.faithtech.sms.data.entity.WorkflowStep;
 import com.faithtech.sms.data.repository.TenantRepository;
 import com.faithtech.sms.data.repository.WorkflowRepository;
+import com.faithtech.sms.data.repository.WorkflowStepRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 public class FaithTechSmsApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(FaithTechSmsApplication.class);
+
     public static void main(String[] args) {
-        SpringApplication.run(FaithTechSmsApplication.class, args);
+        SpringApplication application = new SpringApplication(FaithTechSmsApplication.class);
+        // Records startup steps for StartupTimingReport; bounded, so it costs little when nobody reads it
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
     @Bean
     public CommandLineRunner loadData(TenantRepository tenantRepository,
             WorkflowRepository workflowRepository,
+            WorkflowStepRepository workflowStepRepository,
             com.faithtech.sms.data.repository.UserRepository userRepository,
             org.springframework.security.crypto.password.PasswordEncoder passwordEncoder) {
         return (args) -> {
+            // Only seed an empty database; restarts and additional nodes skip straight to serving
+            if (tenantRepository.count() > 0) {
+                return;
+            }
             Tenant tenant = new Tenant();
             tenant.setName("Ebenezer Baptist");
             tenant.setSlug("ebenezer");
+            tenant.setTimezone("America/New_York");
             tenantRepository.save(tenant);
 
             Workflow workflow = new Workflow();
@@ -33,11 +49,26 @@ public class FaithTechSmsApplication {
             workflow.setDefault(true);
             workflowRepository.save(workflow);
 
+            WorkflowStep welcome = new WorkflowStep();
+            welcome.setWorkflow(workflow);
+            welcome.setStepOrder(1);
+            welcome.setDelayMinutes(0);
+            welcome.setMessageTemplate("Hi {firstName}, thank you for worshipping with us at {churchName} today! We're so glad you came.");
+            workflowStepRepository.save(welcome);
+
+            WorkflowStep followUp = new WorkflowStep();
+            followUp.setWorkflow(workflow);
+            followUp.setStepOrder(2);
+            followUp.setDelayMinutes(3 * 24 * 60);
+            followUp.setMessageTemplate("Hi {firstName}, it's {churchName} again. Is there anything we can pray with you about this week?");
+            workflowStepRepository.save(followUp);
+
             // Seed Admin
             com.faithtech.sms.data.entity.User admin = new com.faithtech.sms.data.entity.User();
             admin.setUsername("admin");
             admin.setPassword(passwordEncoder.encode("admin"));
             admin.setRole("ROLE_ADMIN");
+            admin.setTenant(tenant);
             userRepository.save(admin);
 
             // Seed Member
@@ -45,10 +76,11 @@ public class FaithTechSmsApplication {
             member.setUsername("member");
             member.setPassword(passwordEncoder.encode("password"));
             member.setRole("ROLE_USER");
+            member.setTenant(tenant);
             userRepository.save(member);
 
-            System.out.println("SYSTEM READY: Go to http://localhost:8080/connect/ebenezer");
-            System.out.println("LOGINS: admin/admin or member/password");
+            log.info("SYSTEM READY: Go to http://localhost:8080/connect/ebenezer");
+            log.info("LOGINS: admin/admin or member/password");
         };
     }
 }
@@ -0,0 +1,62 @@
+package com.faithtech.sms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+
+/**
+ * Logs how long startup took and the slowest bean instantiations once the application is ready, so startup
+ * regressions show up in the log of every deploy. Warns when startup exceeds {@code startup.report.budget-ms}.
+ */
+@Component
+@Lazy(false)
+public class StartupTimingReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingReport.class);
+
+    @Value("${startup.report.top-steps:10}")
+    private int topSteps;
+
+    @Value("${startup.report.budget-ms:2000}")
+    private long budgetMs;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Duration total = event.getTimeTaken();
+        if (total.toMillis() > budgetMs) {
+            log.warn("Started in {} ms, over the {} ms budget", total.toMillis(), budgetMs);
+        } else {
+            log.info("Started in {} ms (budget {} ms)", total.toMillis(), budgetMs);
+        }
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        // getBufferedTimeline keeps the buffer, so the steps stay available to anything else that reads them
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        timeline.getEvents().stream()
+                .filter(step -> "spring.beans.instantiate".equals(step.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topSteps)
+                .forEach(step -> log.info("  {} ms {}", step.getDuration().toMillis(), beanName(step)));
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent step) {
+        for (var tag : step.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getStartupStep().getName();
+    }
+}
@@ -1,45 +1,69 @@
 package com.faithtech.sms.controller;
 
-import com.faithtech.sms.data.entity.Visitor;
-import com.faithtech.sms.data.repository.VisitorRepository;
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.service.IntakeIngestionService;
+import com.faithtech.sms.service.IntakeSubmission;
+import com.faithtech.sms.service.TenantRegistry;
+import com.faithtech.sms.service.TraceLinks;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
 @Controller
+// Eager under the fast-start profile too, so the first /connect request does not pay for wiring the intake path
+@Lazy(false)
 public class IntakeController {
 
-    private final VisitorRepository visitorRepository;
+    private final IntakeIngestionService intakeIngestionService;
+    private final TenantRegistry tenantRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final TraceLinks traceLinks;
 
-    public IntakeController(VisitorRepository visitorRepository) {
-        this.visitorRepository = visitorRepository;
+    public IntakeController(IntakeIngestionService intakeIngestionService,
+            TenantRegistry tenantRegistry,
+            ObservationRegistry observationRegistry,
+            TraceLinks traceLinks) {
+        this.intakeIngestionService = intakeIngestionService;
+        this.tenantRegistry = tenantRegistry;
+        this.observationRegistry = observationRegistry;
+        this.traceLinks = traceLinks;
     }
 
     @GetMapping("/connect/{slug}")
-    public String intakeForm(@PathVariable("slug") String slug) {
-        // ideally we check if tenant exists, but for MVP just showing the form
+    public String intakeForm(@PathVariable("slug") String slug, Model model) {
+        model.addAttribute("tenant", resolveTenant(slug));
         return "visitor-intake";
     }
 
     @PostMapping("/connect/submit")
-    public String submitForm(@RequestParam("firstName") String firstName,
+    public String submitForm(@RequestParam("slug") String slug,
+            @RequestParam("firstName") String firstName,
             @RequestParam("lastName") String lastName,
             @RequestParam("phoneNumber") String phoneNumber) {
-        Visitor visitor = new Visitor();
-        visitor.setFirstName(firstName);
-        visitor.setLastName(lastName);
-        visitor.setPhoneNumber(phoneNumber);
-        // Tenant handling omitted for simplicity as per requirement implies basic
-        // intake,
-        // but realistic app would need tenant context.
-        // We will default to null/empty tenant as per "Create a VisitorView... connect
-        // to VisitorRepository"
-        // and "Data Seeding... Default Workflow for that tenant"
-        // The MVP requirements are simple.
-
-        visitorRepository.save(visitor);
+        Tenant tenant = resolveTenant(slug);
+
+        // Timer and span "intake.submit", tagged by tenant. Only known slugs get here, so the tag stays bounded.
+        try {
+            Observation.createNotStarted("intake.submit", observationRegistry)
+                    .lowCardinalityKeyValue("tenant", tenant.getSlug())
+                    .observe(() -> {
+                        // Journaled and acknowledged immediately; persisted by the batching flusher. The trace
+                        // travels with the submission so the visitor's first text can link back to this request.
+                        intakeIngestionService.submit(new IntakeSubmission(tenant.getId(), firstName, lastName,
+                                phoneNumber, traceLinks.currentTraceParent()));
+                    });
+        } catch (IllegalArgumentException e) {
+            // Rejected by IntakeSubmission.validate before anything was journaled
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
         return "redirect:/connect/welcome";
     }
 
@@ -52,4 +76,10 @@ public class IntakeController {
     public String success() {
         return "redirect:/connect/welcome";
     }
+
+    // Served from the in-memory registry; no database read per page view
+    private Tenant resolveTenant(String slug) {
+        return tenantRegistry.findBySlug(slug)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown church: " + slug));
+    }
 }
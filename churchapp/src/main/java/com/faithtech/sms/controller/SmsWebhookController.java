@@ -0,0 +1,104 @@
+package com.faithtech.sms.controller;
+
+import com.faithtech.sms.data.enums.MessageStatus;
+import com.faithtech.sms.service.InboundSms;
+import com.faithtech.sms.service.InboundSmsService;
+import com.faithtech.sms.service.MessageEventWriter;
+import com.twilio.security.RequestValidator;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Twilio webhooks for the tenants' numbers. Handlers only validate and enqueue; the work happens off-thread.
+ * <p>
+ * {@code /sms/**} is open to the internet, so every request must carry a valid Twilio signature. With validation on
+ * and no real auth token configured, all webhook requests are refused rather than trusted.
+ */
+@RestController
+public class SmsWebhookController {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsWebhookController.class);
+
+    private static final String EMPTY_TWIML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Response/>";
+
+    private final InboundSmsService inboundSmsService;
+    private final MessageEventWriter messageEventWriter;
+    private final boolean validateSignature;
+    private final RequestValidator requestValidator;
+
+    public SmsWebhookController(InboundSmsService inboundSmsService,
+            MessageEventWriter messageEventWriter,
+            @Value("${twilio.auth.token}") String authToken,
+            @Value("${twilio.webhook.validate-signature:true}") boolean validateSignature) {
+        this.inboundSmsService = inboundSmsService;
+        this.messageEventWriter = messageEventWriter;
+        this.validateSignature = validateSignature;
+        boolean hasToken = authToken != null && !authToken.isBlank() && !"AUTH_TOKEN_PLACEHOLDER".equals(authToken);
+        this.requestValidator = validateSignature && hasToken ? new RequestValidator(authToken) : null;
+        if (!validateSignature) {
+            log.warn("Twilio webhook signature validation is off; anyone can post to /sms/**");
+        } else if (!hasToken) {
+            log.warn("No Twilio auth token configured; refusing all webhook requests");
+        }
+    }
+
+    @PostMapping(value = "/sms/inbound", produces = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<String> inbound(HttpServletRequest request,
+            @RequestHeader(value = "X-Twilio-Signature", required = false) String signature,
+            @RequestParam("MessageSid") String messageSid,
+            @RequestParam("From") String from,
+            @RequestParam("To") String to,
+            @RequestParam(value = "Body", required = false) String body) {
+        if (!isSignedByTwilio(request, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!inboundSmsService.accept(new InboundSms(messageSid, from, to, body))) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(EMPTY_TWIML);
+    }
+
+    /**
+     * Delivery status callbacks for outbound texts (the StatusCallback URL set when sending).
+     */
+    @PostMapping("/sms/status")
+    public ResponseEntity<Void> status(HttpServletRequest request,
+            @RequestHeader(value = "X-Twilio-Signature", required = false) String signature,
+            @RequestParam("MessageSid") String messageSid,
+            @RequestParam("MessageStatus") String messageStatus,
+            @RequestParam(value = "ErrorCode", required = false) String errorCode) {
+        if (!isSignedByTwilio(request, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        MessageStatus status = MessageStatus.fromTwilio(messageStatus);
+        if (status != null && !messageEventWriter.record(messageSid, null, null, status, errorCode)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private boolean isSignedByTwilio(HttpServletRequest request, String signature) {
+        if (!validateSignature) {
+            return true;
+        }
+        // Fail closed: without a token no signature can be checked
+        if (requestValidator == null || signature == null) {
+            return false;
+        }
+        Map<String, String> params = new HashMap<>();
+        request.getParameterMap().forEach((name, values) -> params.put(name, values[0]));
+        return requestValidator.validate(request.getRequestURL().toString(), params, signature);
+    }
+}
@@ -0,0 +1,32 @@
+package com.faithtech.sms.controller;
+
+import com.faithtech.sms.security.TenantContext;
+import com.faithtech.sms.service.VisitorCsvService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+public class VisitorCsvController {
+
+    private final VisitorCsvService visitorCsvService;
+
+    public VisitorCsvController(VisitorCsvService visitorCsvService) {
+        this.visitorCsvService = visitorCsvService;
+    }
+
+    /**
+     * Streams the signed-in tenant's visitors as CSV, straight from a database cursor to the response.
+     */
+    @GetMapping("/admin/visitors/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        Long tenantId = TenantContext.requireTenantId();
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"visitors.csv\"")
+                .body(out -> visitorCsvService.exportCsv(tenantId, out));
+    }
+}
@@ -0,0 +1,42 @@
+package com.faithtech.sms.data.entity;
+import com.faithtech.sms.data.enums.MessageStatus;
+import jakarta.persistence.*;
+import lombok.Getter; 
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+import java.time.Instant;
+/**
+ * Latest known status per message, folded from {@link MessageEvent}s.
+ * The tenant/status/time index also carries the selected columns, so failure reports are index-only scans.
+ */
+@Entity @Table(name = "message_deliveries", indexes = @Index(name = "idx_message_deliveries_tenant_status",
+        columnList = "tenant_id, status, updated_at, message_sid, error_code"))
+@Getter @Setter
+public class MessageDelivery implements Persistable<String> {
+    @Id private String messageSid;
+    private Long tenantId;
+    private Long workflowStateId;
+    @Enumerated(EnumType.STRING) private MessageStatus status;
+    private String errorCode;
+    private Instant updatedAt;
+    // Several nodes fold events for the same SID; a concurrent update fails the batch and it is merged again
+    @Version private long version;
+
+    // Assigned ids: tell Spring Data which rows are new so saveAll inserts without a select-then-merge per row
+    @Transient private boolean newDelivery;
+
+    @Override
+    public String getId() {
+        return messageSid;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newDelivery;
+    }
+
+    @PostLoad @PostPersist
+    void markNotNew() {
+        newDelivery = false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.faithtech.sms.data.entity;
+import com.faithtech.sms.data.enums.MessageStatus;
+import jakarta.persistence.*;
+import lombok.Getter; 
+import lombok.Setter;
+import java.time.Instant;
+/**
+ * Append-only log of delivery status changes. Rows are never updated; ids are plain columns so inserts need no joins.
+ */
+@Entity @Table(name = "message_events", indexes = @Index(name = "idx_message_events_sid", columnList = "message_sid"))
+@Getter @Setter
+public class MessageEvent {
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_events_seq")
+    @SequenceGenerator(name = "message_events_seq", sequenceName = "message_events_seq", allocationSize = 50)
+    private Long id;
+    private String messageSid;
+    private Long tenantId;
+    private Long workflowStateId;
+    @Enumerated(EnumType.STRING) private MessageStatus status;
+    private String errorCode;
+    private Instant occurredAt;
+}
@@ -1,13 +1,20 @@
 package com.faithtech.sms.data.entity;
+import com.faithtech.sms.service.TenantRegistry;
 import jakarta.persistence.*;
 import lombok.Getter; 
 import lombok.Setter;
-@Entity @Table(name = "tenants") @Getter @Setter
+import java.time.LocalTime;
+@Entity @Table(name = "tenants") @EntityListeners(TenantRegistry.EntityListener.class) @Getter @Setter
 public class Tenant {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tenants_seq")
+    @SequenceGenerator(name = "tenants_seq", sequenceName = "tenants_seq", allocationSize = 50)
+    private Long id;
     private String name;
-    private String slug;
+    @Column(unique = true) private String slug;
     private String twilioPhoneNumber;
-    private String timezone;
+    private String timezone; // IANA zone id, e.g. America/Chicago
+    // No texts go out between these local times; null uses the sms.send-window defaults
+    private LocalTime quietHoursStart;
+    private LocalTime quietHoursEnd;
     private boolean isActive = true;
 }
@@ -1,11 +1,13 @@
 package com.faithtech.sms.data.entity;
 
+import com.faithtech.sms.security.UserDetailsCache;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
 @Table(name = "app_users")
+@EntityListeners(UserDetailsCache.EntityListener.class)
 @Getter
 @Setter
 public class User {
@@ -19,4 +21,8 @@ public class User {
     private String password;
 
     private String role; // ROLE_ADMIN, ROLE_USER
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tenant_id")
+    private Tenant tenant;
 }
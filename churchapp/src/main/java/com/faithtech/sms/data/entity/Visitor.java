@@ -1,16 +1,48 @@
 package com.faithtech.sms.data.entity;
+import com.faithtech.sms.data.enums.VisitorStatus;
+import com.faithtech.sms.service.PhoneNumbers;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.Getter; 
 import lombok.Setter;
-@Entity @Table(name = "visitors") @Getter @Setter
+import java.util.Locale;
+// Every listing is scoped to one tenant, so each index leads with tenant_id. On PostgreSQL the prefix-searched
+// columns use varchar_pattern_ops (db/vendor/postgresql/V8); these definitions only serve the dev schema.
+@Entity @Table(name = "visitors", indexes = {
+        @Index(name = "idx_visitors_tenant_id", columnList = "tenant_id, id"),
+        @Index(name = "idx_visitors_tenant_first_name_key", columnList = "tenant_id, first_name_key"),
+        @Index(name = "idx_visitors_tenant_last_name_key", columnList = "tenant_id, last_name_key"),
+        @Index(name = "uk_visitors_tenant_normalized_phone", columnList = "tenant_id, normalized_phone", unique = true)})
+@Getter @Setter
 public class Visitor {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
-    @ManyToOne @JoinColumn(name = "tenant_id") private Tenant tenant;
+    // Sequence ids (pooled, 50 per round trip) let Hibernate batch inserts; IDENTITY forces one insert per row
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visitors_seq")
+    @SequenceGenerator(name = "visitors_seq", sequenceName = "visitors_seq", allocationSize = 50)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "tenant_id") private Tenant tenant;
     private String firstName;
     private String lastName;
     @NotEmpty private String phoneNumber;
     @Email private String email;
-    private String status = "ACTIVE";
+    @Enumerated(EnumType.STRING) private VisitorStatus status = VisitorStatus.ACTIVE;
+    // Lower-cased copies of the names for case-insensitive prefix search; maintained on write
+    @Setter(AccessLevel.NONE) private String firstNameKey;
+    @Setter(AccessLevel.NONE) private String lastNameKey;
+    // E.164 form of phoneNumber; one visitor per number per tenant
+    @Setter(AccessLevel.NONE) private String normalizedPhone;
+    // Trace of the intake request that submitted this visitor; handed to the workflow state, never stored here
+    @Transient private String intakeTrace;
     @Transient public void setTenantId(Long id) { if(tenant==null) tenant=new Tenant(); tenant.setId(id); }
+
+    @PrePersist @PreUpdate
+    void updateDerivedFields() {
+        firstNameKey = searchKey(firstName);
+        lastNameKey = searchKey(lastName);
+        normalizedPhone = PhoneNumbers.normalize(phoneNumber);
+    }
+
+    public static String searchKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,21 @@
+package com.faithtech.sms.data.entity;
+import jakarta.persistence.*;
+import lombok.Getter; 
+import lombok.Setter;
+import java.time.Instant;
+/**
+ * Free-text reply from a visitor (anything that is not an opt-out or opt-in keyword). Kept here rather than in the
+ * logs, since replies can carry prayer requests and other personal details.
+ */
+@Entity @Table(name = "visitor_replies", indexes = @Index(name = "idx_visitor_replies_visitor", columnList = "visitor_id, received_at"))
+@Getter @Setter
+public class VisitorReply {
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visitor_replies_seq")
+    @SequenceGenerator(name = "visitor_replies_seq", sequenceName = "visitor_replies_seq", allocationSize = 50)
+    private Long id;
+    private Long tenantId;
+    private Long visitorId;
+    private String messageSid;
+    @Column(length = 1600) private String body;
+    private Instant receivedAt;
+}
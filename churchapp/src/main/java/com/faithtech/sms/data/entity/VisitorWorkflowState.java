@@ -2,15 +2,31 @@ package com.faithtech.sms.data.entity;
 import jakarta.persistence.*;
 import lombok.Getter; 
 import lombok.Setter;
-import java.time.LocalDateTime;
+import java.time.Instant;
 import com.faithtech.sms.data.enums.WorkflowStatus;
-@Entity @Table(name = "visitor_workflow_states") @Getter @Setter
+@Entity @Table(name = "visitor_workflow_states",
+        indexes = {
+                @Index(name = "idx_vws_status_next_execution", columnList = "status, next_execution_at"),
+                @Index(name = "idx_vws_tenant_status_next_execution", columnList = "tenant_id, status, next_execution_at")})
+@Getter @Setter
 public class VisitorWorkflowState {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
-    @ManyToOne @JoinColumn(name = "visitor_id") private Visitor visitor;
-    @ManyToOne @JoinColumn(name = "workflow_id") private Workflow workflow;
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visitor_workflow_states_seq")
+    @SequenceGenerator(name = "visitor_workflow_states_seq", sequenceName = "visitor_workflow_states_seq", allocationSize = 50)
+    private Long id;
+    // Denormalized from the visitor so tenant-scoped queries need no join
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "tenant_id") private Tenant tenant;
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "visitor_id") private Visitor visitor;
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "workflow_id") private Workflow workflow;
+    // step_order of the step to send next; left on the last step once the workflow completes
     private int currentStepOrder;
-    private LocalDateTime startedAt;
-    private LocalDateTime nextExecutionAt;
+    private Instant startedAt;
+    private Instant nextExecutionAt;
     @Enumerated(EnumType.STRING) private WorkflowStatus status;
+    // Set while a scheduler node is executing the current step; see WorkflowEngineService
+    private String leaseOwner;
+    private Instant leaseExpiresAt;
+    // Bumped by every write, bulk updates included, so a step advance fails if the row was re-claimed meanwhile
+    @Version private long version;
+    // Trace of the intake that enrolled the visitor, so the first text's span can link back to it
+    private String intakeTrace;
 }
@@ -1,11 +1,20 @@
 package com.faithtech.sms.data.entity;
+import com.faithtech.sms.service.WorkflowPlanCache;
 import jakarta.persistence.*;
 import lombok.Getter; 
 import lombok.Setter;
-@Entity @Table(name = "workflows") @Getter @Setter
+import java.time.Instant;
+@Entity @Table(name = "workflows") @EntityListeners(WorkflowPlanCache.EntityListener.class) @Getter @Setter
 public class Workflow {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
     @ManyToOne @JoinColumn(name = "tenant_id") private Tenant tenant;
     private String name;
     private boolean isDefault;
+    // Compared across nodes by WorkflowPlanCache.checkForChanges
+    private Instant updatedAt;
+
+    @PrePersist @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
 }
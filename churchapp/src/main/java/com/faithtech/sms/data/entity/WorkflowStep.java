@@ -0,0 +1,26 @@
+package com.faithtech.sms.data.entity;
+import com.faithtech.sms.service.WorkflowPlanCache;
+import jakarta.persistence.*;
+import lombok.Getter; 
+import lombok.Setter;
+import java.time.Instant;
+@Entity @Table(name = "workflow_steps",
+        uniqueConstraints = @UniqueConstraint(name = "uk_workflow_steps_order", columnNames = {"workflow_id", "step_order"}))
+@EntityListeners(WorkflowPlanCache.EntityListener.class)
+@Getter @Setter
+public class WorkflowStep {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "workflow_id") private Workflow workflow;
+    private int stepOrder;
+    // Delay after the previous step (or after intake, for the first step)
+    private int delayMinutes;
+    // Placeholders: {firstName}, {lastName}, {churchName}
+    @Column(length = 1600) private String messageTemplate;
+    // Compared across nodes by WorkflowPlanCache.checkForChanges
+    private Instant updatedAt;
+
+    @PrePersist @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,46 @@
+package com.faithtech.sms.data.enums;
+
+import java.util.Locale;
+
+/**
+ * Delivery states of an outbound text, in the order they normally occur. Twilio's intermediate states
+ * (accepted, sending, ...) are folded into the nearest one.
+ */
+public enum MessageStatus {
+    QUEUED(0),
+    SENT(1),
+    DELIVERED(2),
+    UNDELIVERED(2),
+    FAILED(2);
+
+    private final int rank;
+
+    MessageStatus(int rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Callbacks can arrive out of order; a status only replaces one of lower rank, so a late "sent" never
+     * overwrites "delivered".
+     */
+    public boolean supersedes(MessageStatus other) {
+        return other == null || rank > other.rank;
+    }
+
+    /**
+     * @return the status for a Twilio MessageStatus value, or null for ones we don't track (e.g. "receiving")
+     */
+    public static MessageStatus fromTwilio(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "accepted", "scheduled", "queued" -> QUEUED;
+            case "sending", "sent" -> SENT;
+            case "delivered", "read" -> DELIVERED;
+            case "undelivered" -> UNDELIVERED;
+            case "failed", "canceled" -> FAILED;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.faithtech.sms.data.enums;
+
+public enum VisitorStatus {
+    ACTIVE,
+    RESPONDED,
+    OPTED_OUT
+}
@@ -0,0 +1,32 @@
+package com.faithtech.sms.data.repository;
+import com.faithtech.sms.data.entity.MessageDelivery;
+import com.faithtech.sms.data.enums.MessageStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+@Repository
+public interface MessageDeliveryRepository extends JpaRepository<MessageDelivery, String> {
+
+    interface DeliverySummary {
+        String getMessageSid();
+        Instant getUpdatedAt();
+        String getErrorCode();
+    }
+
+    // Index-only on idx_message_deliveries_tenant_status, e.g. "failed deliveries this week"
+    @Query("select d.messageSid as messageSid, d.updatedAt as updatedAt, d.errorCode as errorCode " +
+            "from MessageDelivery d where d.tenantId = :tenantId and d.status in :statuses and d.updatedAt >= :since " +
+            "order by d.updatedAt desc")
+    List<DeliverySummary> findByStatusSince(Long tenantId, Collection<MessageStatus> statuses, Instant since);
+
+    // Texts that never reached the handset: rejected by Twilio (FAILED) or by the carrier (UNDELIVERED)
+    default List<DeliverySummary> findFailedSince(Long tenantId, Instant since) {
+        return findByStatusSince(tenantId, EnumSet.of(MessageStatus.FAILED, MessageStatus.UNDELIVERED), since);
+    }
+}
@@ -0,0 +1,8 @@
+package com.faithtech.sms.data.repository;
+import com.faithtech.sms.data.entity.MessageEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MessageEventRepository extends JpaRepository<MessageEvent, Long> {
+}
@@ -0,0 +1,12 @@
+package com.faithtech.sms.data.repository;
+import com.faithtech.sms.data.entity.VisitorReply;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface VisitorReplyRepository extends JpaRepository<VisitorReply, Long> {
+
+    List<VisitorReply> findByVisitorIdOrderByReceivedAt(Long visitorId);
+}
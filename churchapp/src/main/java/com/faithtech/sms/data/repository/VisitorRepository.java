@@ -1,8 +1,74 @@
 package com.faithtech.sms.data.repository;
 import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.service.PhoneNumbers;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface VisitorRepository extends JpaRepository<Visitor, Long> {
+
+    // Slice rather than Page: the grid scrolls with an undefined size, so the count query is never needed
+    Slice<Visitor> findByTenantId(Long tenantId, Pageable pageable);
+
+    // Cursor-backed; must be consumed inside a transaction and closed
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Visitor> streamByTenantIdOrderById(Long tenantId);
+
+    // Unique lookup on uk_visitors_tenant_normalized_phone; the number must already be normalized
+    Optional<Visitor> findByTenantIdAndNormalizedPhone(Long tenantId, String normalizedPhone);
+
+    List<Visitor> findByTenantIdAndNormalizedPhoneIn(Long tenantId, Collection<String> normalizedPhones);
+
+    /**
+     * Case-insensitive prefix search on first name, last name and normalized phone number within one tenant.
+     * {@code prefix} must be a lower-cased, LIKE-escaped pattern ending in {@code %} (see {@link #prefixPattern});
+     * {@code phonePrefix} is an E.164 prefix pattern, or null when the term cannot be part of a phone number
+     * (see {@link #phonePrefixPattern}).
+     */
+    @Query("select v from Visitor v where v.tenant.id = :tenantId and (v.firstNameKey like :prefix escape '\\' " +
+            "or v.lastNameKey like :prefix escape '\\' or v.normalizedPhone like :phonePrefix)")
+    Slice<Visitor> searchByPrefix(Long tenantId, String prefix, String phonePrefix, Pageable pageable);
+
+    static String prefixPattern(String term) {
+        String key = Visitor.searchKey(term);
+        return key.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Maps what a user types for a phone number ({@code 404-55}, {@code (404) 555}, {@code +44 20}) to a prefix of
+     * the stored E.164 form, assuming the North American country code like {@link PhoneNumbers#normalize}.
+     *
+     * @return a LIKE pattern, or null if the term has anything but digits and phone punctuation
+     */
+    static String phonePrefixPattern(String term) {
+        String trimmed = term.trim();
+        StringBuilder digits = new StringBuilder(16);
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if ("+-(). ".indexOf(c) < 0) {
+                return null;
+            }
+        }
+        if (digits.isEmpty()) {
+            return null;
+        }
+        // North American area codes never start with 1, so a leading 1 is the country code
+        boolean hasCountryCode = trimmed.startsWith("+") || digits.charAt(0) == '1';
+        return "+" + (hasCountryCode ? "" : "1") + digits + "%";
+    }
 }
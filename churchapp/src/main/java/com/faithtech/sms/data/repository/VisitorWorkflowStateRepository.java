@@ -1,8 +1,73 @@
 package com.faithtech.sms.data.repository;
 import com.faithtech.sms.data.entity.VisitorWorkflowState;
+import com.faithtech.sms.data.enums.WorkflowStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface VisitorWorkflowStateRepository extends JpaRepository<VisitorWorkflowState, Long> {
+
+    /**
+     * Lightweight view of a scheduled step; avoids loading the visitor and workflow associations.
+     */
+    interface DueStep {
+        Long getId();
+        Instant getNextExecutionAt();
+    }
+
+    // Served by idx_vws_status_next_execution (status, next_execution_at)
+    @Query("select s.id as id, s.nextExecutionAt as nextExecutionAt from VisitorWorkflowState s " +
+            "where s.status in :statuses and s.nextExecutionAt <= :horizon order by s.nextExecutionAt")
+    List<DueStep> findDueSteps(Collection<WorkflowStatus> statuses, Instant horizon, Pageable pageable);
+
+    interface TenantBacklog {
+        Long getTenantId();
+        Long getDue();
+        Long getOverdue();
+    }
+
+    // Per-tenant due and overdue counts for metrics; served by idx_vws_tenant_status_next_execution
+    @Query("select s.tenant.id as tenantId, count(s) as due, " +
+            "sum(case when s.nextExecutionAt < :overdueBefore then 1 else 0 end) as overdue " +
+            "from VisitorWorkflowState s where s.status in :statuses and s.nextExecutionAt <= :now " +
+            "group by s.tenant.id")
+    List<TenantBacklog> countBacklogByTenant(Collection<WorkflowStatus> statuses, Instant now, Instant overdueBefore);
+
+    /**
+     * Leases the given rows to {@code owner} if they are still due and not leased by a live owner.
+     * Concurrent claims from several nodes serialize on the row locks, so each row is won by exactly one. Bumps the
+     * version, so a previous owner still holding the row in memory can no longer write it.
+     */
+    @Modifying
+    @Query("update VisitorWorkflowState s set s.leaseOwner = :owner, s.leaseExpiresAt = :expiresAt, " +
+            "s.version = s.version + 1 " +
+            "where s.id in :ids and s.status in :statuses and s.nextExecutionAt <= :now " +
+            "and (s.leaseExpiresAt is null or s.leaseExpiresAt < :now)")
+    int claim(Collection<Long> ids, Collection<WorkflowStatus> statuses, String owner, Instant expiresAt,
+            Instant now);
+
+    @Query("select s.id from VisitorWorkflowState s where s.id in :ids and s.leaseOwner = :owner")
+    List<Long> findIdsByLeaseOwner(Collection<Long> ids, String owner);
+
+    @Modifying
+    @Query("update VisitorWorkflowState s set s.leaseOwner = null, s.leaseExpiresAt = null, s.version = s.version + 1 " +
+            "where s.id = :id and s.leaseOwner = :owner")
+    int releaseLease(Long id, String owner);
+
+    @Modifying
+    @Query("update VisitorWorkflowState s set s.status = com.faithtech.sms.data.enums.WorkflowStatus.CANCELLED, " +
+            "s.nextExecutionAt = null, s.version = s.version + 1 where s.visitor.id = :visitorId and s.status in :statuses")
+    int cancelForVisitor(Long visitorId, Collection<WorkflowStatus> statuses);
+
+    // Everything a step needs besides the in-memory plan and tenant, in one select
+    @Query("select s from VisitorWorkflowState s join fetch s.visitor where s.id = :id")
+    Optional<VisitorWorkflowState> findWithVisitorById(Long id);
 }
@@ -1,8 +1,16 @@
 package com.faithtech.sms.data.repository;
 import com.faithtech.sms.data.entity.Workflow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Optional;
+
 @Repository
 public interface WorkflowRepository extends JpaRepository<Workflow, Long> {
+    Optional<Workflow> findFirstByTenantIdAndIsDefaultTrue(Long tenantId);
+
+    @Query("select max(w.updatedAt) from Workflow w")
+    Instant findLatestUpdate();
 }
@@ -0,0 +1,16 @@
+package com.faithtech.sms.data.repository;
+import com.faithtech.sms.data.entity.WorkflowStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface WorkflowStepRepository extends JpaRepository<WorkflowStep, Long> {
+    List<WorkflowStep> findByWorkflowIdOrderByStepOrder(Long workflowId);
+
+    @Query("select max(s.updatedAt) from WorkflowStep s")
+    Instant findLatestUpdate();
+}
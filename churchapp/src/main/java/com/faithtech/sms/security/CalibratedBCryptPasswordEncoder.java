@@ -0,0 +1,68 @@
+package com.faithtech.sms.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt at a fixed or calibrated cost. Unlike {@link BCryptPasswordEncoder#upgradeEncoding}, which only ever asks for
+ * stronger hashes, any stored hash whose cost differs from the current one is reported for re-encoding, so lowering
+ * the cost after calibration takes effect at each user's next login.
+ */
+public class CalibratedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final int MIN_COST = 8;
+    private static final int MAX_COST = 14;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int cost;
+
+    public CalibratedBCryptPasswordEncoder(int cost) {
+        this.cost = cost;
+        this.delegate = new BCryptPasswordEncoder(cost);
+    }
+
+    /**
+     * Picks the lowest cost whose hash takes at least {@code targetMillis} on this machine.
+     */
+    public static CalibratedBCryptPasswordEncoder calibrated(long targetMillis) {
+        int cost = MIN_COST;
+        while (cost < MAX_COST) {
+            BCryptPasswordEncoder candidate = new BCryptPasswordEncoder(cost);
+            candidate.encode("calibration"); // warm-up
+            long start = System.nanoTime();
+            candidate.encode("calibration");
+            if ((System.nanoTime() - start) / 1_000_000 >= targetMillis) {
+                break;
+            }
+            cost++;
+        }
+        return new CalibratedBCryptPasswordEncoder(cost);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != cost;
+    }
+}
@@ -1,19 +1,28 @@
 package com.faithtech.sms.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final CustomAuthenticationSuccessHandler successHandler;
 
     public SecurityConfig(CustomAuthenticationSuccessHandler successHandler) {
@@ -21,7 +30,11 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+            @Value("${management.server.port:-1}") int managementPort) throws Exception {
+        // The scraper is only let in on the internal management port; on the application port it needs an admin
+        RequestMatcher scrape = new AndRequestMatcher(new AntPathRequestMatcher("/actuator/prometheus"),
+                request -> managementPort > 0 && request.getLocalPort() == managementPort);
         http
                 .csrf(AbstractHttpConfigurer::disable) // Disable CSRF for MVP simplicity, especially with Vaadin/H2
                 .authorizeHttpRequests(auth -> auth
@@ -29,14 +42,17 @@ public class SecurityConfig {
                                 "/",
                                 "/login",
                                 "/connect/**",
+                                "/sms/**",
                                 "/css/**",
                                 "/js/**",
                                 "/images/**",
                                 "/h2-console/**",
                                 "/VAADIN/**",
-                                "/vaadinServlet/**")
+                                "/vaadinServlet/**",
+                                "/actuator/health")
                         .permitAll()
-                        .requestMatchers("/visitors/**", "/users/**").hasRole("ADMIN")
+                        .requestMatchers(scrape).permitAll()
+                        .requestMatchers("/visitors/**", "/users/**", "/admin/**", "/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .formLogin(form -> form
                         .loginPage("/login")
@@ -51,8 +67,21 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt at {@code security.password.bcrypt-cost}, or, when {@code security.password.target-hash-ms} is set, at
+     * the cost calibrated to that hash time on this machine (see PasswordEncoderBenchmark in src/jmh).
+     * Hashes at a different cost, or without an {id} prefix, are re-encoded on the user's next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-cost:10}") int cost,
+            @Value("${security.password.target-hash-ms:0}") long targetHashMs) {
+        CalibratedBCryptPasswordEncoder bcrypt = targetHashMs > 0
+                ? CalibratedBCryptPasswordEncoder.calibrated(targetHashMs)
+                : new CalibratedBCryptPasswordEncoder(cost);
+        log.info("Password hashing uses bcrypt cost {}", bcrypt.getCost());
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // Hashes stored before the {bcrypt} prefix was introduced
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 }
@@ -0,0 +1,28 @@
+package com.faithtech.sms.security;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Resolves the tenant of the signed-in user. Admin queries must be scoped with this id.
+ */
+public final class TenantContext {
+
+    private TenantContext() {
+    }
+
+    public static Optional<Long> currentTenantId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof TenantUserDetails user) {
+            return Optional.ofNullable(user.getTenantId());
+        }
+        return Optional.empty();
+    }
+
+    public static Long requireTenantId() {
+        return currentTenantId().orElseThrow(() -> new AccessDeniedException("No tenant for the current user"));
+    }
+}
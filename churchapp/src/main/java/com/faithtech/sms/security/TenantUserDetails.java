@@ -0,0 +1,24 @@
+package com.faithtech.sms.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated principal that also carries the tenant the user belongs to.
+ */
+public class TenantUserDetails extends User {
+
+    private final Long tenantId;
+
+    public TenantUserDetails(String username, String password, Collection<? extends GrantedAuthority> authorities,
+            Long tenantId) {
+        super(username, password, authorities);
+        this.tenantId = tenantId;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+}
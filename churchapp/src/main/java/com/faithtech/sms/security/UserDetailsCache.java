@@ -0,0 +1,90 @@
+package com.faithtech.sms.security;
+
+import com.faithtech.sms.data.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, time-limited cache of the user fields needed to authenticate, keyed by username.
+ * <p>
+ * Entries are immutable snapshots rather than {@code UserDetails}: Spring Security erases credentials on the
+ * principal after login, so every lookup must build a fresh object. Saving a {@link User} evicts its entry after
+ * commit (see {@link EntityListener}).
+ */
+@Component
+public class UserDetailsCache {
+
+    record CachedUser(String username, String passwordHash, String role, Long tenantId, long expiresAt) {
+    }
+
+    private final Map<String, CachedUser> entries;
+    private final long ttlMillis;
+
+    public UserDetailsCache(@Value("${security.user-cache.max-size:1000}") int maxSize,
+            @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        // Access order, so the least recently used entry is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized CachedUser get(String username) {
+        CachedUser cached = entries.get(username);
+        if (cached != null && cached.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(username);
+            return null;
+        }
+        return cached;
+    }
+
+    synchronized CachedUser put(String username, String passwordHash, String role, Long tenantId) {
+        CachedUser cached = new CachedUser(username, passwordHash, role, tenantId, System.currentTimeMillis() + ttlMillis);
+        entries.put(username, cached);
+        return cached;
+    }
+
+    synchronized void evict(String username) {
+        entries.remove(username);
+    }
+
+    /**
+     * JPA listener on {@link User}; evicts the saved user once the transaction commits.
+     */
+    public static class EntityListener {
+
+        private final UserDetailsCache cache;
+
+        public EntityListener(UserDetailsCache cache) {
+            this.cache = cache;
+        }
+
+        @PostPersist
+        @PostUpdate
+        @PostRemove
+        void changed(User user) {
+            String username = user.getUsername();
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                cache.evict(username);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(username);
+                }
+            });
+        }
+    }
+}
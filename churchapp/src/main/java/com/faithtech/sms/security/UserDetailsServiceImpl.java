@@ -2,30 +2,53 @@ package com.faithtech.sms.security;
 
 import com.faithtech.sms.data.entity.User;
 import com.faithtech.sms.data.repository.UserRepository;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache cache;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserDetailsCache cache) {
         this.userRepository = userRepository;
+        this.cache = cache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        UserDetailsCache.CachedUser cached = cache.get(username);
+        if (cached == null) {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+            // The tenant is a lazy proxy; reading its id does not hit the database
+            Long tenantId = user.getTenant() == null ? null : user.getTenant().getId();
+            cached = cache.put(username, user.getPassword(), user.getRole(), tenantId);
+        }
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword()) // Hashed password
-                .roles(user.getRole().replace("ROLE_", ""))
-                .build();
+        return new TenantUserDetails(
+                cached.username(),
+                cached.passwordHash(), // Hashed password
+                AuthorityUtils.createAuthorityList(cached.role()),
+                cached.tenantId());
+    }
+
+    /**
+     * Called by Spring Security after a successful login whose stored hash uses an outdated encoding or work factor.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.findByUsername(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+        });
+        cache.evict(userDetails.getUsername());
+        Long tenantId = userDetails instanceof TenantUserDetails tenantUser ? tenantUser.getTenantId() : null;
+        return new TenantUserDetails(userDetails.getUsername(), newPassword, userDetails.getAuthorities(), tenantId);
     }
 }
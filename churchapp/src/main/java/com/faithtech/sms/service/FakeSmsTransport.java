@@ -0,0 +1,25 @@
+package com.faithtech.sms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Local stand-in for Twilio ({@code sms.transport=fake}); logs messages instead of sending them.
+ */
+@Service
+@ConditionalOnProperty(name = "sms.transport", havingValue = "fake")
+public class FakeSmsTransport implements SmsTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeSmsTransport.class);
+
+    @Override
+    public String send(String from, String to, String body) {
+        String sid = "SMfake" + UUID.randomUUID().toString().replace("-", "");
+        log.info("FAKE SMS {} {} -> {}: {}", sid, from, to, body);
+        return sid;
+    }
+}
@@ -0,0 +1,32 @@
+package com.faithtech.sms.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the most recent {@code capacity} keys (e.g. Twilio message SIDs), evicting the oldest first.
+ */
+class IdempotencyCache {
+
+    private final Map<String, Boolean> seen;
+
+    IdempotencyCache(int capacity) {
+        this.seen = new LinkedHashMap<>(capacity * 4 / 3 + 1) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return true the first time a key is seen, false for repeats
+     */
+    synchronized boolean firstSeen(String key) {
+        return seen.put(key, Boolean.TRUE) == null;
+    }
+
+    synchronized void forget(String key) {
+        seen.remove(key);
+    }
+}
@@ -0,0 +1,7 @@
+package com.faithtech.sms.service;
+
+/**
+ * A text received on one of the tenants' Twilio numbers.
+ */
+public record InboundSms(String messageSid, String from, String to, String body) {
+}
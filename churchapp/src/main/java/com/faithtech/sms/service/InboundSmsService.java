@@ -0,0 +1,154 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.entity.VisitorReply;
+import com.faithtech.sms.data.enums.VisitorStatus;
+import com.faithtech.sms.data.repository.VisitorReplyRepository;
+import com.faithtech.sms.data.repository.VisitorRepository;
+import com.faithtech.sms.data.repository.VisitorWorkflowStateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handles replies to the tenants' numbers off the webhook thread.
+ * <p>
+ * Retried webhooks are dropped by message SID, unless the earlier attempt failed. Each sender's messages run serially, in arrival order, on a shared
+ * worker pool, so a STOP followed by START is applied in that order without any global lock. The number of accepted
+ * but unprocessed messages is bounded; beyond it the webhook is refused and Twilio retries later.
+ * <p>
+ * Any other reply is stored as a {@link VisitorReply} and marks the visitor RESPONDED, unless they opted out.
+ */
+@Service
+public class InboundSmsService {
+
+    private static final Logger log = LoggerFactory.getLogger(InboundSmsService.class);
+
+    private static final Set<String> OPT_OUT_KEYWORDS = Set.of("STOP", "STOPALL", "UNSUBSCRIBE", "CANCEL", "END", "QUIT");
+    private static final Set<String> OPT_IN_KEYWORDS = Set.of("START", "UNSTOP", "YES");
+
+    private final TenantRegistry tenantRegistry;
+    private final VisitorRepository visitorRepository;
+    private final VisitorWorkflowStateRepository stateRepository;
+    private final VisitorReplyRepository replyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyCache processed;
+    private final Semaphore backlog;
+    private final ExecutorService workers;
+    private final KeyedSerialExecutor serialExecutor;
+
+    public InboundSmsService(TenantRegistry tenantRegistry,
+            VisitorRepository visitorRepository,
+            VisitorWorkflowStateRepository stateRepository,
+            VisitorReplyRepository replyRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${sms.inbound.idempotency-cache-size:100000}") int idempotencyCacheSize,
+            @Value("${sms.inbound.max-backlog:10000}") int maxBacklog,
+            @Value("${sms.inbound.workers:4}") int workerCount) {
+        this.tenantRegistry = tenantRegistry;
+        this.visitorRepository = visitorRepository;
+        this.stateRepository = stateRepository;
+        this.replyRepository = replyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.processed = new IdempotencyCache(idempotencyCacheSize);
+        this.backlog = new Semaphore(maxBacklog);
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "sms-inbound-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.serialExecutor = new KeyedSerialExecutor(workers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdown();
+    }
+
+    /**
+     * Queues a message for processing and returns immediately.
+     *
+     * @return false if the backlog is full and the sender should retry
+     */
+    public boolean accept(InboundSms sms) {
+        if (!processed.firstSeen(sms.messageSid())) {
+            return true;
+        }
+        if (!backlog.tryAcquire()) {
+            processed.forget(sms.messageSid());
+            return false;
+        }
+        try {
+            serialExecutor.execute(PhoneNumbers.normalize(sms.to()) + ":" + PhoneNumbers.normalize(sms.from()), () -> {
+                try {
+                    handle(sms);
+                } catch (RuntimeException e) {
+                    log.error("Inbound SMS {} failed", sms.messageSid(), e);
+                    // Not handled, so a redelivery of this SID must not be dropped as a duplicate
+                    processed.forget(sms.messageSid());
+                } finally {
+                    backlog.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            processed.forget(sms.messageSid());
+            backlog.release();
+            throw e;
+        }
+        return true;
+    }
+
+    private void handle(InboundSms sms) {
+        Tenant tenant = tenantRegistry.findByTwilioPhoneNumber(sms.to()).orElse(null);
+        if (tenant == null) {
+            log.warn("Inbound SMS {} to unknown number {}", sms.messageSid(), sms.to());
+            return;
+        }
+        transactionTemplate.executeWithoutResult(tx -> {
+            String from = PhoneNumbers.normalize(sms.from());
+            Visitor visitor = from == null ? null
+                    : visitorRepository.findByTenantIdAndNormalizedPhone(tenant.getId(), from).orElse(null);
+            if (visitor == null) {
+                log.info("Inbound SMS {} from unknown visitor for tenant {}", sms.messageSid(), tenant.getSlug());
+                return;
+            }
+            String keyword = sms.body() == null ? "" : sms.body().trim().toUpperCase(Locale.ROOT);
+            if (OPT_OUT_KEYWORDS.contains(keyword)) {
+                visitor.setStatus(VisitorStatus.OPTED_OUT);
+                stateRepository.cancelForVisitor(visitor.getId(), WorkflowEngineService.ACTIVE_STATUSES);
+            } else if (OPT_IN_KEYWORDS.contains(keyword)) {
+                visitor.setStatus(VisitorStatus.ACTIVE);
+            } else {
+                // Only an opt-in keyword undoes a STOP
+                if (visitor.getStatus() != VisitorStatus.OPTED_OUT) {
+                    visitor.setStatus(VisitorStatus.RESPONDED);
+                }
+                replyRepository.save(reply(tenant, visitor, sms));
+                log.info("Reply {} from visitor {}", sms.messageSid(), visitor.getId());
+            }
+        });
+    }
+
+    private static VisitorReply reply(Tenant tenant, Visitor visitor, InboundSms sms) {
+        VisitorReply reply = new VisitorReply();
+        reply.setTenantId(tenant.getId());
+        reply.setVisitorId(visitor.getId());
+        reply.setMessageSid(sms.messageSid());
+        reply.setBody(sms.body());
+        reply.setReceivedAt(Instant.now());
+        return reply;
+    }
+}
@@ -0,0 +1,231 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Visitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion for the public intake form.
+ * <p>
+ * {@link #submit} journals the submission, fsyncs (group-committed with concurrent submitters) and returns; a single
+ * flusher thread drains the queue and persists submissions with batched inserts. Anything journaled but not yet
+ * committed is replayed on the next start, so a crash loses nothing. When the queue is full, submissions fall back to
+ * a synchronous insert instead of being rejected.
+ * <p>
+ * Visitors are keyed by tenant and normalized phone number, so a returning visitor (or a replayed journal entry)
+ * updates the existing row rather than creating a duplicate.
+ */
+@Service
+// Eager under the fast-start profile too: the journal must be replayed at startup, not on the first submission
+@Lazy(false)
+public class IntakeIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(IntakeIngestionService.class);
+
+    private final VisitorUpserter visitorUpserter;
+    private final WorkflowEngineService workflowEngineService;
+    private final VisitorFeed visitorFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final Counter overflow;
+    private IntakeJournal journal;
+    private Thread flusher;
+    private volatile boolean running = true;
+
+    @Value("${intake.journal.path:data/intake-journal.log}")
+    private String journalPath;
+
+    @Value("${intake.batch.size:200}")
+    private int batchSize;
+
+    @Value("${intake.batch.max-delay-ms:50}")
+    private long maxDelayMs;
+
+    public IntakeIngestionService(VisitorUpserter visitorUpserter,
+            WorkflowEngineService workflowEngineService,
+            VisitorFeed visitorFeed,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${intake.queue.capacity:20000}") int queueCapacity) {
+        this.visitorUpserter = visitorUpserter;
+        this.workflowEngineService = workflowEngineService;
+        this.visitorFeed = visitorFeed;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = new Semaphore(queueCapacity);
+        Gauge.builder("intake.queue.depth", queue, LinkedBlockingQueue::size)
+                .description("Journaled submissions not yet persisted")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("intake.overflow")
+                .description("Submissions persisted synchronously because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new IntakeJournal(Path.of(journalPath));
+        replay();
+        flusher = new Thread(this::flushLoop, "intake-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            commit(remaining);
+        }
+        journal.close();
+    }
+
+    /**
+     * Accepts a submission. Returns once it is durable in the journal (or, under overload, in the database).
+     */
+    public void submit(IntakeSubmission submission) {
+        // A row the database would reject must never reach the journal, or the flusher would retry it forever
+        submission.validate();
+        if (!capacity.tryAcquire()) {
+            overflow.increment();
+            persist(List.of(submission.toVisitor()));
+            return;
+        }
+        try {
+            journal.append(submission.toFields(), seq -> queue.add(new Pending(seq, submission)));
+            journal.sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal intake submission", e);
+        }
+    }
+
+    private void replay() throws IOException {
+        Map<Long, String[]> pending = journal.readPending();
+        if (pending.isEmpty()) {
+            journal.truncate();
+            return;
+        }
+        log.info("Replaying {} journaled intake submissions", pending.size());
+        List<Pending> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<Long, String[]> entry : pending.entrySet()) {
+            IntakeSubmission submission;
+            try {
+                submission = IntakeSubmission.fromFields(entry.getValue());
+                submission.validate();
+            } catch (RuntimeException e) {
+                // Damaged on disk; it can never be stored
+                log.error("Dropping unreadable journaled intake submission {}", entry.getKey(), e);
+                continue;
+            }
+            batch.add(new Pending(entry.getKey(), submission));
+            if (batch.size() == batchSize) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            commit(batch);
+        }
+        journal.truncate();
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                commitWithRetry(batch);
+                capacity.release(batch.size());
+                batch.clear();
+                truncateIfIdle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Leave unflushed entries in the queue for stop()
+                batch.forEach(queue::add);
+                return;
+            }
+        }
+    }
+
+    private void commitWithRetry(List<Pending> batch) throws InterruptedException {
+        long backoffMs = 100;
+        while (true) {
+            try {
+                commit(batch);
+                return;
+            } catch (IOException | RuntimeException e) {
+                // The submissions are journaled; keep retrying rather than dropping them
+                log.error("Intake flush failed, retrying in {} ms", backoffMs, e);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 10_000);
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) throws IOException {
+        List<Visitor> visitors = new ArrayList<>(batch.size());
+        long maxSeq = 0;
+        for (Pending pending : batch) {
+            visitors.add(pending.submission().toVisitor());
+            maxSeq = Math.max(maxSeq, pending.seq());
+        }
+        persist(visitors);
+        // Not the last element: a batch put back on interrupt is no longer in sequence order
+        journal.checkpoint(maxSeq);
+        // Without this a crash could lose the checkpoint and replay the batch
+        journal.sync();
+    }
+
+    private void persist(List<Visitor> visitors) {
+        List<Visitor> created = transactionTemplate.execute(status -> {
+            List<Visitor> newVisitors = visitorUpserter.upsert(visitors);
+            workflowEngineService.enroll(newVisitors);
+            return newVisitors;
+        });
+        // Published only once committed, so live views never show a visitor that was rolled back
+        visitorFeed.publish(created);
+    }
+
+    private void truncateIfIdle() {
+        // Synchronizing on the journal blocks appends, so an empty queue here means nothing is uncommitted
+        synchronized (journal) {
+            if (queue.isEmpty()) {
+                try {
+                    journal.truncate();
+                } catch (IOException e) {
+                    log.error("Could not truncate intake journal", e);
+                }
+            }
+        }
+    }
+
+    private record Pending(long seq, IntakeSubmission submission) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.faithtech.sms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Append-only, line-oriented write-ahead log for accepted intake submissions.
+ * <p>
+ * Each submission is written as {@code S<tab>seq<tab>fields...}; once a batch is committed to the database a
+ * {@code C<tab>seq} checkpoint is appended. On restart every submission after the last checkpoint is replayed.
+ * {@link #sync()} group-commits: concurrent callers share a single {@code fsync}.
+ * <p>
+ * A crash can leave the last record half written. {@link #readPending()} drops an unterminated final line and skips
+ * malformed ones, so the journal never stops the application from starting.
+ */
+class IntakeJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IntakeJournal.class);
+
+    private static final String NULL = "\\N";
+
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+    private long lastSeq;
+    private volatile long written;
+    private long synced;
+
+    IntakeJournal(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads the submissions not covered by a checkpoint, in append order. A torn final record is cut off the file.
+     */
+    synchronized Map<Long, String[]> readPending() throws IOException {
+        Map<Long, String[]> pending = new LinkedHashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+        channel.position(0);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read until the file is fully buffered
+        }
+        byte[] bytes = buffer.array();
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                readRecord(new String(bytes, start, i - start, StandardCharsets.UTF_8), pending);
+                start = i + 1;
+            }
+        }
+        if (start < bytes.length) {
+            // Appends are not atomic: the process died while writing this one, so it was never acknowledged
+            log.warn("Discarding {} bytes of a torn record at the end of the intake journal", bytes.length - start);
+            channel.truncate(start);
+            channel.force(false);
+        }
+        written = channel.size();
+        return pending;
+    }
+
+    private void readRecord(String line, Map<Long, String[]> pending) {
+        String[] parts = line.split("\t", -1);
+        long seq;
+        try {
+            seq = parts.length >= 2 ? Long.parseLong(parts[1]) : -1;
+        } catch (NumberFormatException e) {
+            seq = -1;
+        }
+        if (seq < 0 || !("C".equals(parts[0]) || "S".equals(parts[0]))) {
+            log.warn("Skipping malformed intake journal record: {}", line);
+            return;
+        }
+        lastSeq = Math.max(lastSeq, seq);
+        if ("C".equals(parts[0])) {
+            long committed = seq;
+            pending.keySet().removeIf(s -> s <= committed);
+        } else {
+            String[] fields = new String[parts.length - 2];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = unescape(parts[i + 2]);
+            }
+            pending.put(seq, fields);
+        }
+    }
+
+    /**
+     * Appends a submission and runs {@code afterAppend} under the same lock, so anything it enqueues is ordered
+     * exactly as in the journal.
+     *
+     * @return the submission's sequence number
+     */
+    synchronized long append(String[] fields, LongConsumer afterAppend) throws IOException {
+        long seq = ++lastSeq;
+        StringBuilder line = new StringBuilder(64).append("S\t").append(seq);
+        for (String field : fields) {
+            line.append('\t').append(escape(field));
+        }
+        write(line.append('\n').toString());
+        afterAppend.accept(seq);
+        return seq;
+    }
+
+    /**
+     * Marks every submission up to and including {@code seq} as committed. Durable once {@link #sync()} returns.
+     */
+    synchronized void checkpoint(long seq) throws IOException {
+        write("C\t" + seq + "\n");
+    }
+
+    /**
+     * Empties the journal; only safe once every appended submission has been committed.
+     */
+    synchronized void truncate() throws IOException {
+        channel.truncate(0);
+        written = 0;
+        synchronized (syncLock) {
+            synced = 0;
+        }
+    }
+
+    /**
+     * Blocks until everything appended so far (at least up to the caller's record) is on disk.
+     */
+    void sync() throws IOException {
+        long target = written;
+        synchronized (syncLock) {
+            if (synced >= target) {
+                return;
+            }
+            long upTo = written;
+            channel.force(false);
+            synced = upTo;
+        }
+    }
+
+    private void write(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        written = channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String unescape(String value) {
+        if (NULL.equals(value)) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Visitor;
+
+/**
+ * A public intake form post, as accepted before it is persisted.
+ */
+public record IntakeSubmission(Long tenantId, String firstName, String lastName, String phoneNumber, String traceParent) {
+
+    // Width of the visitors name and phone columns
+    static final int MAX_FIELD_LENGTH = 255;
+
+    /**
+     * Rejects a submission that could never be stored, so it is refused at the form instead of failing the flush.
+     *
+     * @throws IllegalArgumentException naming the first problem found
+     */
+    public void validate() {
+        if (tenantId == null) {
+            throw new IllegalArgumentException("Missing church");
+        }
+        requireText("First name", firstName);
+        requireText("Last name", lastName);
+        requireText("Phone number", phoneNumber);
+        if (PhoneNumbers.normalize(phoneNumber) == null) {
+            throw new IllegalArgumentException("Invalid phone number");
+        }
+    }
+
+    private static void requireText(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        if (value.length() > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException(field + " is too long");
+        }
+    }
+
+    Visitor toVisitor() {
+        Visitor visitor = new Visitor();
+        visitor.setTenantId(tenantId);
+        visitor.setFirstName(firstName);
+        visitor.setLastName(lastName);
+        visitor.setPhoneNumber(phoneNumber);
+        visitor.setIntakeTrace(traceParent);
+        return visitor;
+    }
+
+    String[] toFields() {
+        return new String[] {tenantId.toString(), firstName, lastName, phoneNumber, traceParent};
+    }
+
+    /**
+     * @throws IllegalArgumentException if the entry does not have the fields {@link #toFields} writes
+     */
+    static IntakeSubmission fromFields(String[] fields) {
+        if (fields.length != 5 || fields[0] == null) {
+            throw new IllegalArgumentException("Expected a tenant and 4 more journal fields, got " + fields.length);
+        }
+        return new IntakeSubmission(Long.valueOf(fields[0]), fields[1], fields[2], fields[3], fields[4]);
+    }
+}
@@ -0,0 +1,28 @@
+package com.faithtech.sms.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on a shared executor while guaranteeing that tasks with the same key run one at a time, in submission
+ * order. Each key keeps only the tail of its chain; idle keys hold no state.
+ */
+class KeyedSerialExecutor {
+
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    KeyedSerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    void execute(String key, Runnable task) {
+        CompletableFuture<Void> tail = tails.compute(key, (k, previous) -> previous == null
+                ? CompletableFuture.runAsync(task, executor)
+                // Run after the previous task whether it succeeded or not
+                : previous.handle((result, error) -> null).thenRunAsync(task, executor));
+        tail.whenComplete((result, error) -> tails.remove(key, tail));
+    }
+}
@@ -0,0 +1,213 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.MessageDelivery;
+import com.faithtech.sms.data.entity.MessageEvent;
+import com.faithtech.sms.data.enums.MessageStatus;
+import com.faithtech.sms.data.repository.MessageDeliveryRepository;
+import com.faithtech.sms.data.repository.MessageEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batching writer for delivery status events.
+ * <p>
+ * {@link #record} only offers to a bounded queue, so callers (the status callback, SMS workers) never wait on the
+ * database. A single flusher thread drains the queue and, per batch and in one transaction, appends the events to
+ * {@code message_events} and folds them into {@code message_deliveries} with one lookup by SID. When the queue is
+ * full, {@link #record} refuses the event and counts it; the status callback answers 503 in that case.
+ * <p>
+ * Delivery rows are inserted or merged by SID. When another node inserts or updates the same SID concurrently, the
+ * batch fails on the primary key or the row version and is read and merged again. A batch that keeps failing is
+ * written event by event, so only an event that cannot be stored at all is dropped.
+ */
+@Service
+public class MessageEventWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageEventWriter.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MessageEventRepository eventRepository;
+    private final MessageDeliveryRepository deliveryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<MessageEvent> queue;
+    private final Counter dropped;
+    private final Counter failed;
+    private Thread flusher;
+    private volatile boolean running = true;
+
+    @Value("${sms.events.batch.size:500}")
+    private int batchSize;
+
+    @Value("${sms.events.batch.max-delay-ms:200}")
+    private long maxDelayMs;
+
+    public MessageEventWriter(MessageEventRepository eventRepository,
+            MessageDeliveryRepository deliveryRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${sms.events.queue.capacity:50000}") int queueCapacity) {
+        this.eventRepository = eventRepository;
+        this.deliveryRepository = deliveryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("sms.events.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.dropped = Counter.builder("sms.events.dropped")
+                .description("Status events refused because the writer queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("sms.events.failed")
+                .description("Status events that could not be written after retrying")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = new Thread(this::flushLoop, "message-event-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        List<MessageEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeWithRetry(remaining);
+        }
+    }
+
+    /**
+     * Records a status change. Tenant and workflow state are known when we send and null on callbacks; the delivery
+     * row keeps whatever was recorded first.
+     *
+     * @return false if the event was dropped because the queue is full
+     */
+    public boolean record(String messageSid, Long tenantId, Long workflowStateId, MessageStatus status, String errorCode) {
+        MessageEvent event = new MessageEvent();
+        event.setMessageSid(messageSid);
+        event.setTenantId(tenantId);
+        event.setWorkflowStateId(workflowStateId);
+        event.setStatus(status);
+        event.setErrorCode(errorCode);
+        event.setOccurredAt(Instant.now());
+        if (queue.offer(event)) {
+            return true;
+        }
+        dropped.increment();
+        long total = (long) dropped.count();
+        if (total % 1000 == 1) {
+            log.warn("Message event queue full, {} events dropped so far", total);
+        }
+        return false;
+    }
+
+    private void flushLoop() {
+        List<MessageEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                MessageEvent first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(queue::offer);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Could not write {} message events", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeWithRetry(List<MessageEvent> batch) {
+        RuntimeException failure = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                // Usually another node inserted or updated one of these SIDs; the next attempt reads its row
+                failure = e;
+            }
+        }
+        if (batch.size() > 1) {
+            log.warn("Could not write {} message events, writing them one by one", batch.size(), failure);
+            for (MessageEvent event : batch) {
+                writeWithRetry(List.of(event));
+            }
+            return;
+        }
+        failed.increment();
+        log.error("Dropping message event {} for {}", batch.get(0).getStatus(), batch.get(0).getMessageSid(), failure);
+    }
+
+    private void write(List<MessageEvent> batch) {
+        // Ids assigned by a rolled-back attempt were never stored
+        batch.forEach(event -> event.setId(null));
+        transactionTemplate.executeWithoutResult(tx -> {
+            eventRepository.saveAll(batch);
+            Map<String, MessageDelivery> deliveries = deliveryRepository
+                    .findAllById(batch.stream().map(MessageEvent::getMessageSid).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(MessageDelivery::getMessageSid, Function.identity()));
+            Map<String, MessageDelivery> changed = new LinkedHashMap<>();
+            for (MessageEvent event : batch) {
+                MessageDelivery delivery = deliveries.computeIfAbsent(event.getMessageSid(), sid -> {
+                    MessageDelivery created = new MessageDelivery();
+                    created.setMessageSid(sid);
+                    created.setNewDelivery(true);
+                    return created;
+                });
+                if (merge(delivery, event)) {
+                    changed.put(delivery.getMessageSid(), delivery);
+                }
+            }
+            deliveryRepository.saveAll(changed.values());
+        });
+    }
+
+    private static boolean merge(MessageDelivery delivery, MessageEvent event) {
+        boolean changed = false;
+        if (delivery.getTenantId() == null && event.getTenantId() != null) {
+            delivery.setTenantId(event.getTenantId());
+            changed = true;
+        }
+        if (delivery.getWorkflowStateId() == null && event.getWorkflowStateId() != null) {
+            delivery.setWorkflowStateId(event.getWorkflowStateId());
+            changed = true;
+        }
+        if (event.getStatus().supersedes(delivery.getStatus())) {
+            delivery.setStatus(event.getStatus());
+            delivery.setErrorCode(event.getErrorCode());
+            delivery.setUpdatedAt(event.getOccurredAt());
+            changed = true;
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,95 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.entity.Visitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A step's message text, parsed once into alternating literal and placeholder segments.
+ * Rendering walks the segments into a single pre-sized builder; no regex or intermediate strings.
+ */
+public final class MessageTemplate {
+
+    enum Placeholder {
+        FIRST_NAME("firstName"),
+        LAST_NAME("lastName"),
+        CHURCH_NAME("churchName");
+
+        private final String token;
+
+        Placeholder(String token) {
+            this.token = token;
+        }
+
+        static Placeholder of(String token) {
+            for (Placeholder placeholder : values()) {
+                if (placeholder.token.equals(token)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+
+    // literals.length == placeholders.length + 1; the text is literals[0] placeholders[0] literals[1] ...
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+    private final int literalLength;
+
+    private MessageTemplate(String[] literals, Placeholder[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static MessageTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            int open = template.indexOf('{', i);
+            int close = open < 0 ? -1 : template.indexOf('}', open);
+            if (close < 0) {
+                literal.append(template, i, template.length());
+                break;
+            }
+            Placeholder placeholder = Placeholder.of(template.substring(open + 1, close));
+            if (placeholder == null) {
+                // Unknown tokens are kept as text
+                literal.append(template, i, close + 1);
+            } else {
+                literal.append(template, i, open);
+                literals.add(literal.toString());
+                placeholders.add(placeholder);
+                literal.setLength(0);
+            }
+            i = close + 1;
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(literals.toArray(String[]::new), placeholders.toArray(Placeholder[]::new));
+    }
+
+    public String render(Visitor visitor, Tenant tenant) {
+        StringBuilder out = new StringBuilder(literalLength + placeholders.length * 16);
+        out.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            String value = switch (placeholders[i]) {
+                case FIRST_NAME -> visitor.getFirstName();
+                case LAST_NAME -> visitor.getLastName();
+                case CHURCH_NAME -> tenant == null ? null : tenant.getName();
+            };
+            if (value != null) {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,7 @@
+package com.faithtech.sms.service;
+
+/**
+ * A text queued for delivery. {@code from} is the tenant's Twilio number and doubles as the rate-limit key.
+ */
+public record OutboundSms(String from, String to, String body) {
+}
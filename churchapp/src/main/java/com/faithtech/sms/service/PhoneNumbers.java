@@ -0,0 +1,44 @@
+package com.faithtech.sms.service;
+
+/**
+ * E.164 normalization for the North American numbers our churches collect, e.g. {@code 404-555-0100} becomes
+ * {@code +14045550100}. Numbers entered with a leading {@code +} are taken as already carrying a country code.
+ */
+public final class PhoneNumbers {
+
+    private static final String DEFAULT_COUNTRY_CODE = "1";
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * @return the number in E.164 form, or null if it cannot be a valid number
+     */
+    public static String normalize(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String trimmed = raw.trim();
+        if (trimmed.startsWith("'")) {
+            // The formula guard our CSV export puts in front of "+1..."; re-importing an export must still work
+            trimmed = trimmed.substring(1).trim();
+        }
+        StringBuilder digits = new StringBuilder(16);
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (trimmed.startsWith("+")) {
+            return digits.length() >= 8 && digits.length() <= 15 ? "+" + digits : null;
+        }
+        if (digits.length() == 10) {
+            return "+" + DEFAULT_COUNTRY_CODE + digits;
+        }
+        if (digits.length() == 11 && digits.charAt(0) == '1') {
+            return "+" + digits;
+        }
+        return null;
+    }
+}
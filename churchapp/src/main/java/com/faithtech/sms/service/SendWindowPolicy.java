@@ -0,0 +1,97 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Tenant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Decides when a workflow step may actually be sent, in the tenant's own time zone.
+ * <p>
+ * A step that falls inside the tenant's quiet hours is deferred to when the window opens, plus an offset derived from
+ * the state id and spread evenly over the first {@code sms.send-window.spread-minutes} of the window. Overnight
+ * intakes therefore go out as a steady stream after opening rather than all at once on the hour.
+ */
+@Component
+public class SendWindowPolicy {
+
+    private final ZoneId defaultZone;
+    private final LocalTime defaultQuietStart;
+    private final LocalTime defaultQuietEnd;
+    private final long spreadSeconds;
+
+    public SendWindowPolicy(@Value("${sms.send-window.default-timezone:America/New_York}") String defaultTimezone,
+            @Value("${sms.send-window.quiet-start:21:00}") String quietStart,
+            @Value("${sms.send-window.quiet-end:09:00}") String quietEnd,
+            @Value("${sms.send-window.spread-minutes:60}") long spreadMinutes) {
+        this.defaultZone = ZoneId.of(defaultTimezone);
+        this.defaultQuietStart = LocalTime.parse(quietStart);
+        this.defaultQuietEnd = LocalTime.parse(quietEnd);
+        this.spreadSeconds = Math.max(1, spreadMinutes * 60);
+    }
+
+    /**
+     * @param due       when the step would ideally be sent
+     * @param tenant    the tenant, or null to use the defaults
+     * @param spreadKey a stable per-message key (e.g. the state id) used to place deferred sends within the spread
+     * @return {@code due} if it is within the send window, otherwise the deferred send time
+     */
+    public Instant adjust(Instant due, Tenant tenant, long spreadKey) {
+        // Millisecond precision survives a round trip through any of our databases unchanged
+        due = due.truncatedTo(ChronoUnit.MILLIS);
+        ZoneId zone = zoneOf(tenant);
+        LocalTime quietStart = tenant != null && tenant.getQuietHoursStart() != null ? tenant.getQuietHoursStart() : defaultQuietStart;
+        LocalTime quietEnd = tenant != null && tenant.getQuietHoursEnd() != null ? tenant.getQuietHoursEnd() : defaultQuietEnd;
+        if (quietStart.equals(quietEnd)) {
+            return due;
+        }
+
+        ZonedDateTime local = due.atZone(zone);
+        LocalTime time = local.toLocalTime();
+        boolean wrapsMidnight = quietStart.isAfter(quietEnd);
+        boolean quiet = wrapsMidnight
+                ? !time.isBefore(quietStart) || time.isBefore(quietEnd)
+                : !time.isBefore(quietStart) && time.isBefore(quietEnd);
+        if (!quiet) {
+            return due;
+        }
+
+        ZonedDateTime opens = local.with(quietEnd);
+        if (!opens.isAfter(local)) {
+            opens = opens.plusDays(1);
+        }
+        // Never spread past the end of the send window itself
+        long windowSeconds = Duration.between(quietEnd, quietStart).getSeconds();
+        if (windowSeconds <= 0) {
+            windowSeconds += Duration.ofDays(1).getSeconds();
+        }
+        long offset = Math.floorMod(mix(spreadKey), Math.min(spreadSeconds, windowSeconds));
+        return opens.plusSeconds(offset).toInstant();
+    }
+
+    private ZoneId zoneOf(Tenant tenant) {
+        if (tenant == null || tenant.getTimezone() == null || tenant.getTimezone().isBlank()) {
+            return defaultZone;
+        }
+        try {
+            return ZoneId.of(tenant.getTimezone());
+        } catch (DateTimeException e) {
+            return defaultZone;
+        }
+    }
+
+    // Spreads sequential ids evenly instead of in order
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,22 @@
+package com.faithtech.sms.service;
+
+public class SmsDeliveryException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public SmsDeliveryException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public SmsDeliveryException(String message, boolean retryable) {
+        this(message, retryable, null);
+    }
+
+    /**
+     * True for throttling and transient gateway errors; false when resending the same message cannot succeed.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
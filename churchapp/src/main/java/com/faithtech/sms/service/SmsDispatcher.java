@@ -0,0 +1,249 @@
+package com.faithtech.sms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous outbound SMS pipeline in front of the configured {@link SmsTransport}.
+ * <p>
+ * Messages go into a queue drained by a fixed worker pool; at most {@code sms.dispatch.queue-capacity} accepted messages
+ * may be outstanding (queued, parked or backing off) at once. Each sending number has its own token bucket so
+ * one tenant's mass text cannot exceed its carrier throughput or starve other tenants: a message whose bucket is empty
+ * reserves the next token and is parked on a timer until it is due, rather than holding a worker. Reservations are
+ * handed out in arrival order, so a burst wakes one message per token and keeps its order. Retryable failures are
+ * re-queued with exponential backoff.
+ * <p>
+ * Metrics: {@code sms.send} times each gateway call by outcome, {@code sms.dispatch.latency} times a message from
+ * submission to its final outcome (queueing, rate limiting and retries included), plus queue depth, retry and
+ * rate-limit counters. Each gateway call runs in an {@code sms.send} span under the submitter's trace.
+ */
+@Service
+public class SmsDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsDispatcher.class);
+
+    private final SmsTransport transport;
+    private final TraceLinks traceLinks;
+    private final Timer sendSucceeded;
+    private final Timer sendRetryable;
+    private final Timer sendFailed;
+    private final Timer deliverySent;
+    private final Timer deliveryFailed;
+    private final Timer deliveryRejected;
+    private final Counter retries;
+    private final Counter rateLimited;
+    // Unbounded so a parked or backed-off message can always go back in; the bound is enforced on submit
+    private final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemon("sms-timer"));
+    private ExecutorService workers;
+
+    @Value("${twilio.phone.number}")
+    private String defaultFromNumber;
+
+    @Value("${sms.dispatch.workers:8}")
+    private int workerCount;
+
+    @Value("${sms.dispatch.rate-per-second:1}")
+    private double ratePerSecond;
+
+    @Value("${sms.dispatch.burst:1}")
+    private int burst;
+
+    @Value("${sms.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${sms.dispatch.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    public SmsDispatcher(SmsTransport transport,
+            TraceLinks traceLinks,
+            MeterRegistry meterRegistry,
+            @Value("${sms.dispatch.queue-capacity:10000}") int queueCapacity) {
+        this.transport = transport;
+        this.traceLinks = traceLinks;
+        this.capacity = new Semaphore(queueCapacity);
+        this.sendSucceeded = sendTimer(meterRegistry, "success");
+        this.sendRetryable = sendTimer(meterRegistry, "retryable_failure");
+        this.sendFailed = sendTimer(meterRegistry, "failure");
+        this.deliverySent = deliveryTimer(meterRegistry, "sent");
+        this.deliveryFailed = deliveryTimer(meterRegistry, "failed");
+        this.deliveryRejected = deliveryTimer(meterRegistry, "rejected");
+        this.retries = Counter.builder("sms.dispatch.retries").register(meterRegistry);
+        this.rateLimited = Counter.builder("sms.dispatch.rate_limited")
+                .description("Messages parked because their sending number's bucket was empty")
+                .register(meterRegistry);
+        Gauge.builder("sms.dispatch.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    private static Timer sendTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("sms.send")
+                .description("Gateway calls")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Timer deliveryTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("sms.dispatch.latency")
+                .description("Submission to final outcome, including queueing and retries")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        workers = Executors.newFixedThreadPool(workerCount, daemon("sms-worker"));
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::workLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    /**
+     * Queues a message without blocking the caller.
+     *
+     * @return a future completed with the gateway message id, or exceptionally once retries are exhausted or the
+     * queue is full
+     */
+    public CompletableFuture<String> submit(OutboundSms sms) {
+        String from = sms.from() == null || sms.from().isBlank() ? defaultFromNumber : sms.from();
+        Delivery delivery = new Delivery(new OutboundSms(from, sms.to(), sms.body()), new CompletableFuture<>(),
+                traceLinks.currentContext());
+        if (!capacity.tryAcquire()) {
+            deliveryRejected.record(0, TimeUnit.NANOSECONDS);
+            delivery.result().completeExceptionally(new RejectedExecutionException("SMS queue is full"));
+            return delivery.result();
+        }
+        long submittedAt = System.nanoTime();
+        delivery.result().whenComplete((sid, e) -> {
+            capacity.release();
+            Timer timer = e == null ? deliverySent
+                    : e instanceof RejectedExecutionException ? deliveryRejected : deliveryFailed;
+            timer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        });
+        queue.add(delivery);
+        return delivery.result();
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void workLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Delivery delivery;
+            try {
+                delivery = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                process(delivery);
+            } catch (RuntimeException e) {
+                log.error("SMS worker failed", e);
+                delivery.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void process(Delivery delivery) {
+        // A parked message comes back holding the token it reserved; every other pass takes a new one
+        if (!delivery.tokenReserved().getAndSet(false)) {
+            long waitNanos = buckets.computeIfAbsent(delivery.sms().from(), k -> new TokenBucket(ratePerSecond, burst))
+                    .reserve();
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                delivery.tokenReserved().set(true);
+                timer.schedule(() -> requeue(delivery), waitNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+        }
+        Span span = traceLinks.startSpan("sms.send", delivery.trace(), null);
+        long started = System.nanoTime();
+        try (Tracer.SpanInScope scope = traceLinks.tracer().withSpan(span)) {
+            OutboundSms sms = delivery.sms();
+            String sid = transport.send(sms.from(), sms.to(), sms.body());
+            sendSucceeded.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            span.tag("sms.sid", sid);
+            delivery.result().complete(sid);
+        } catch (SmsDeliveryException e) {
+            span.error(e);
+            int attempt = delivery.attempts().incrementAndGet();
+            if (!e.isRetryable() || attempt >= maxAttempts) {
+                sendFailed.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                delivery.result().completeExceptionally(e);
+                return;
+            }
+            sendRetryable.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            retries.increment();
+            long backoff = initialBackoffMs << Math.min(attempt - 1, 16);
+            long jitter = ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            timer.schedule(() -> requeue(delivery), backoff + jitter, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // A transport bug must still settle the future, or the caller never records an outcome
+            log.error("SMS send to {} failed unexpectedly", delivery.sms().to(), e);
+            span.error(e);
+            sendFailed.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            delivery.result().completeExceptionally(e);
+        } finally {
+            span.end();
+        }
+    }
+
+    private void requeue(Delivery delivery) {
+        // Already counted against capacity when it was accepted
+        queue.add(delivery);
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Delivery(OutboundSms sms, CompletableFuture<String> result, TraceContext trace, AtomicInteger attempts,
+            AtomicBoolean tokenReserved) {
+        Delivery(OutboundSms sms, CompletableFuture<String> result, TraceContext trace) {
+            this(sms, result, trace, new AtomicInteger(), new AtomicBoolean());
+        }
+    }
+}
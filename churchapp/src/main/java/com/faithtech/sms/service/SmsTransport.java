@@ -0,0 +1,15 @@
+package com.faithtech.sms.service;
+
+/**
+ * Gateway that hands a single text message to a carrier.
+ * Implementations are called from {@link SmsDispatcher} worker threads and must be thread-safe.
+ */
+public interface SmsTransport {
+
+    /**
+     * Sends one message and returns the gateway's message id.
+     *
+     * @throws SmsDeliveryException if the gateway rejected or could not accept the message
+     */
+    String send(String from, String to, String body);
+}
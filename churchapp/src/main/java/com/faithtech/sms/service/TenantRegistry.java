@@ -0,0 +1,180 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.repository.TenantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory registry of active tenants, keyed by slug, by id and by Twilio number.
+ * <p>
+ * Reads go against immutable maps published through a volatile field, so the public intake pages and the workflow
+ * engine resolve tenants without touching the database. Writes (tenant saves, via {@link EntityListener}) copy the
+ * maps and swap them in.
+ * Entries are detached snapshots and must not be modified.
+ * <p>
+ * Saves on another node fire no listener here. A lookup that misses reloads the registry, at most once per
+ * {@code tenants.registry.miss-reload-interval-ms}, so a tenant created or renamed elsewhere resolves on its first
+ * use. A full reload every {@code tenants.registry.reload-interval-ms} also drops tenants deactivated elsewhere.
+ */
+@Service
+public class TenantRegistry {
+
+    private final TenantRepository tenantRepository;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), Map.of());
+    // System.nanoTime() of the last reload caused by a miss; MIN_VALUE before the first
+    private final AtomicLong lastMissReload = new AtomicLong(Long.MIN_VALUE);
+
+    @Value("${tenants.registry.miss-reload-interval-ms:5000}")
+    private long missReloadIntervalMs;
+
+    public TenantRegistry(TenantRepository tenantRepository) {
+        this.tenantRepository = tenantRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${tenants.registry.reload-interval-ms:60000}")
+    public synchronized void load() {
+        Map<Long, Tenant> loaded = new HashMap<>();
+        for (Tenant tenant : tenantRepository.findAll()) {
+            if (tenant.isActive()) {
+                loaded.put(tenant.getId(), detachedCopy(tenant));
+            }
+        }
+        snapshot = Snapshot.of(loaded);
+    }
+
+    public Optional<Tenant> findBySlug(String slug) {
+        return slug == null ? Optional.empty() : lookup(current -> current.bySlug().get(slug));
+    }
+
+    public Optional<Tenant> findById(Long id) {
+        return id == null ? Optional.empty() : lookup(current -> current.byId().get(id));
+    }
+
+    public Collection<Tenant> findAll() {
+        return snapshot.byId().values();
+    }
+
+    public Optional<Tenant> findByTwilioPhoneNumber(String phoneNumber) {
+        String normalized = PhoneNumbers.normalize(phoneNumber);
+        return normalized == null ? Optional.empty() : lookup(current -> current.byPhoneNumber().get(normalized));
+    }
+
+    private Optional<Tenant> lookup(Function<Snapshot, Tenant> finder) {
+        Tenant tenant = finder.apply(snapshot);
+        if (tenant == null && claimMissReload()) {
+            load();
+            tenant = finder.apply(snapshot);
+        }
+        return Optional.ofNullable(tenant);
+    }
+
+    // Bounds the reloads that unknown slugs or numbers can cause to one per interval
+    private boolean claimMissReload() {
+        long now = System.nanoTime();
+        long last = lastMissReload.get();
+        return (last == Long.MIN_VALUE || now - last >= TimeUnit.MILLISECONDS.toNanos(missReloadIntervalMs))
+                && lastMissReload.compareAndSet(last, now);
+    }
+
+    private synchronized void put(Tenant tenant) {
+        Map<Long, Tenant> next = new HashMap<>(snapshot.byId());
+        if (tenant.isActive()) {
+            next.put(tenant.getId(), tenant);
+        } else {
+            next.remove(tenant.getId());
+        }
+        snapshot = Snapshot.of(next);
+    }
+
+    private synchronized void remove(Tenant tenant) {
+        Map<Long, Tenant> next = new HashMap<>(snapshot.byId());
+        next.remove(tenant.getId());
+        snapshot = Snapshot.of(next);
+    }
+
+    private static Tenant detachedCopy(Tenant tenant) {
+        Tenant copy = new Tenant();
+        copy.setId(tenant.getId());
+        copy.setName(tenant.getName());
+        copy.setSlug(tenant.getSlug());
+        copy.setTwilioPhoneNumber(tenant.getTwilioPhoneNumber());
+        copy.setTimezone(tenant.getTimezone());
+        copy.setQuietHoursStart(tenant.getQuietHoursStart());
+        copy.setQuietHoursEnd(tenant.getQuietHoursEnd());
+        copy.setActive(tenant.isActive());
+        return copy;
+    }
+
+    private record Snapshot(Map<String, Tenant> bySlug, Map<Long, Tenant> byId, Map<String, Tenant> byPhoneNumber) {
+
+        static Snapshot of(Map<Long, Tenant> byId) {
+            Map<String, Tenant> bySlug = new HashMap<>();
+            Map<String, Tenant> byPhoneNumber = new HashMap<>();
+            for (Tenant tenant : byId.values()) {
+                if (tenant.getSlug() != null) {
+                    bySlug.put(tenant.getSlug(), tenant);
+                }
+                String phoneNumber = PhoneNumbers.normalize(tenant.getTwilioPhoneNumber());
+                if (phoneNumber != null) {
+                    byPhoneNumber.put(phoneNumber, tenant);
+                }
+            }
+            return new Snapshot(Map.copyOf(bySlug), Map.copyOf(byId), Map.copyOf(byPhoneNumber));
+        }
+    }
+
+    /**
+     * JPA listener on {@link Tenant} that applies changes to the registry once the saving transaction commits.
+     */
+    public static class EntityListener {
+
+        private final TenantRegistry registry;
+
+        public EntityListener(TenantRegistry registry) {
+            this.registry = registry;
+        }
+
+        @PostPersist
+        @PostUpdate
+        void saved(Tenant tenant) {
+            Tenant copy = detachedCopy(tenant);
+            afterCommit(() -> registry.put(copy));
+        }
+
+        @PostRemove
+        void removed(Tenant tenant) {
+            Tenant copy = detachedCopy(tenant);
+            afterCommit(() -> registry.remove(copy));
+        }
+
+        private static void afterCommit(Runnable action) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                action.run();
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.faithtech.sms.service;
+
+/**
+ * Classic token bucket: refills continuously at {@code ratePerSecond} up to {@code capacity} tokens. Tokens can be
+ * reserved ahead of the refill, so callers that have to wait are handed out consecutive slots.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, int capacity) {
+        this.capacity = capacity;
+        this.refillPerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, borrowing against the refill when none is left; the caller owns it once the wait has passed.
+     *
+     * @return 0 if the token is available now, otherwise the nanoseconds until it will be
+     */
+    synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano) - 1;
+        lastRefill = now;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / refillPerNano);
+    }
+}
@@ -0,0 +1,77 @@
+package com.faithtech.sms.service;
+
+import io.micrometer.tracing.Link;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries trace context across the asynchronous hops of the intake-to-text path (journal, workflow state, SMS
+ * queue). Contexts are stored as {@code traceId-spanId-flags} strings. Falls back to a no-op tracer when tracing is
+ * not configured.
+ */
+@Component
+public class TraceLinks {
+
+    private final Tracer tracer;
+
+    public TraceLinks(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+    }
+
+    public Tracer tracer() {
+        return tracer;
+    }
+
+    /**
+     * @return the current span's context as a string, or null outside a span
+     */
+    public String currentTraceParent() {
+        Span span = tracer.currentSpan();
+        if (span == null || span.isNoop()) {
+            return null;
+        }
+        TraceContext context = span.context();
+        return context.traceId() + "-" + context.spanId() + "-" + (Boolean.TRUE.equals(context.sampled()) ? "01" : "00");
+    }
+
+    /**
+     * @return the current trace context, for work handed to another thread
+     */
+    public TraceContext currentContext() {
+        return tracer.currentTraceContext().context();
+    }
+
+    /**
+     * Starts a span that is a child of {@code parent} (if any) and links to the span stored in {@code linkedTraceParent}
+     * (if any). The link ties work back to a request whose trace has already ended, e.g. a text to the intake.
+     */
+    public Span startSpan(String name, TraceContext parent, String linkedTraceParent) {
+        Span.Builder builder = tracer.spanBuilder().name(name);
+        if (parent != null) {
+            builder.setParent(parent);
+        }
+        TraceContext linked = parse(linkedTraceParent);
+        if (linked != null) {
+            builder.addLink(new Link(linked));
+        }
+        return builder.start();
+    }
+
+    private TraceContext parse(String traceParent) {
+        if (traceParent == null) {
+            return null;
+        }
+        String[] parts = traceParent.split("-");
+        if (parts.length != 3) {
+            return null;
+        }
+        return tracer.traceContextBuilder()
+                .traceId(parts[0])
+                .spanId(parts[1])
+                .sampled("01".equals(parts[2]))
+                .build();
+    }
+}
@@ -1,10 +1,28 @@
 package com.faithtech.sms.service;
+import com.twilio.Twilio;
+import com.twilio.exception.ApiException;
+import com.twilio.exception.TwilioException;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.api.v2010.account.MessageCreator;
+import com.twilio.type.PhoneNumber;
 import jakarta.annotation.PostConstruct;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+
 @Service
-public class TwilioService {
+@ConditionalOnProperty(name = "sms.transport", havingValue = "twilio", matchIfMissing = true)
+public class TwilioService implements SmsTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(TwilioService.class);
 
     @Value("${twilio.account.sid}")
     private String accountSid;
@@ -12,10 +30,51 @@ public class TwilioService {
     @Value("${twilio.auth.token}")
     private String authToken;
 
+    @Value("${twilio.status-callback-url:}")
+    private String statusCallbackUrl;
+
+    private boolean configured;
+
     @PostConstruct
     public void init() {
         if ("AC_PLACEHOLDER".equals(accountSid) || "AUTH_TOKEN_PLACEHOLDER".equals(authToken)) {
-            System.out.println("LOG: Twilio keys are missing or default.");
+            log.warn("Twilio keys are missing or default.");
+            return;
+        }
+        Twilio.init(accountSid, authToken);
+        configured = true;
+    }
+
+    @Override
+    public String send(String from, String to, String body) {
+        if (!configured) {
+            throw new SmsDeliveryException("Twilio is not configured", false);
+        }
+        try {
+            MessageCreator creator = Message.creator(new PhoneNumber(to), new PhoneNumber(from), body);
+            if (!statusCallbackUrl.isBlank()) {
+                creator.setStatusCallback(URI.create(statusCallbackUrl));
+            }
+            return creator.create().getSid();
+        } catch (ApiException e) {
+            // 429 (too many requests) and 5xx are transient; anything else is a problem with the message itself
+            Integer status = e.getStatusCode();
+            boolean retryable = status == null || status == 429 || status >= 500;
+            throw new SmsDeliveryException("Twilio rejected message: " + e.getMessage(), retryable, e);
+        } catch (TwilioException e) {
+            // A read timeout or reset may come after Twilio accepted the POST, and resending would text twice
+            throw new SmsDeliveryException("Twilio request failed: " + e.getMessage(), failedBeforeSending(e), e);
+        }
+    }
+
+    // True only if the connection was never made, so Twilio cannot have seen the request
+    static boolean failedBeforeSending(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+                    || cause instanceof UnknownHostException || cause instanceof NoRouteToHostException) {
+                return true;
+            }
         }
+        return false;
     }
 }
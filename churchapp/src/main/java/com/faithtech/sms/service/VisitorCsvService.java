@@ -0,0 +1,239 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.repository.VisitorRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streaming CSV import and export of a tenant's visitors.
+ * <p>
+ * Import parses one record at a time and writes each chunk in its own transaction (batched inserts, then the
+ * persistence context is cleared), so memory use is bounded by the chunk size rather than the file. Export reads
+ * through a database cursor and detaches each row once written.
+ * <p>
+ * Uploads from the UI are imported on a background thread ({@link #importCsvAsync}), one at a time, so a large file
+ * neither holds the Vaadin session lock nor competes with other imports for the database.
+ */
+@Service
+public class VisitorCsvService {
+
+    static final String[] HEADER = {"firstName", "lastName", "phoneNumber", "email", "status"};
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final VisitorRepository visitorRepository;
+    private final VisitorUpserter visitorUpserter;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService importer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "visitor-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${visitors.import.chunk-size:500}")
+    private int chunkSize;
+
+    public VisitorCsvService(VisitorRepository visitorRepository,
+            VisitorUpserter visitorUpserter,
+            Validator validator,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate) {
+        this.visitorRepository = visitorRepository;
+        this.visitorUpserter = visitorUpserter;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PreDestroy
+    public void stop() {
+        importer.shutdownNow();
+    }
+
+    public record ImportProgress(long rowsRead, long imported, long rejected) {
+    }
+
+    public record ImportResult(long rowsRead, long imported, long rejected, List<String> errors) {
+    }
+
+    /**
+     * Imports visitors into {@code tenantId}. Rows matching an existing visitor's phone number update that visitor.
+     * Imported visitors are not enrolled in a workflow. The header row decides the column order; {@code firstName},
+     * {@code lastName}, {@code phoneNumber} and {@code email} are recognized (case and separators ignored).
+     */
+    public ImportResult importCsv(Long tenantId, InputStream in, Consumer<ImportProgress> progress) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return new ImportResult(0, 0, 0, List.of());
+        }
+        Map<String, Integer> columns = columnIndex(header);
+        if (!columns.containsKey("phonenumber")) {
+            return new ImportResult(0, 0, 0, List.of("Missing phoneNumber column"));
+        }
+
+        long rowsRead = 0;
+        long imported = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+        List<Visitor> chunk = new ArrayList<>(chunkSize);
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            rowsRead++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            Visitor visitor = toVisitor(tenantId, record, columns);
+            String error = validate(visitor);
+            if (error != null) {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Row " + (rowsRead + 1) + ": " + error);
+                }
+                continue;
+            }
+            chunk.add(visitor);
+            if (chunk.size() == chunkSize) {
+                imported += writeChunk(chunk);
+                progress.accept(new ImportProgress(rowsRead, imported, rejected));
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += writeChunk(chunk);
+        }
+        progress.accept(new ImportProgress(rowsRead, imported, rejected));
+        return new ImportResult(rowsRead, imported, rejected, errors);
+    }
+
+    /**
+     * Imports {@code file} on the import thread, as {@link #importCsv}. {@code progress} is called from that thread
+     * after each chunk.
+     *
+     * @return completed with the result, or exceptionally if the file could not be read or a chunk failed to save
+     */
+    public CompletableFuture<ImportResult> importCsvAsync(Long tenantId, Path file, Consumer<ImportProgress> progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                return importCsv(tenantId, in, progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, importer);
+    }
+
+    /**
+     * Writes all of a tenant's visitors to {@code out}, ordered by id.
+     */
+    public void exportCsv(Long tenantId, OutputStream out) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            CsvWriter csv = new CsvWriter(writer);
+            try (Stream<Visitor> visitors = visitorRepository.streamByTenantIdOrderById(tenantId)) {
+                csv.writeRecord(HEADER);
+                visitors.forEach(visitor -> {
+                    try {
+                        // The E.164 form starts with '+', which spreadsheets read as a formula like any other text
+                        String phone = CsvWriter.text(visitor.getNormalizedPhone() != null
+                                ? visitor.getNormalizedPhone() : visitor.getPhoneNumber());
+                        csv.writeRecord(CsvWriter.text(visitor.getFirstName()), CsvWriter.text(visitor.getLastName()),
+                                phone, CsvWriter.text(visitor.getEmail()),
+                                visitor.getStatus() == null ? null : visitor.getStatus().name());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    // Keep the persistence context from accumulating every row
+                    entityManager.detach(visitor);
+                });
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private int writeChunk(List<Visitor> chunk) {
+        int size = chunk.size();
+        transactionTemplate.executeWithoutResult(tx -> {
+            visitorUpserter.upsert(chunk);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        chunk.clear();
+        return size;
+    }
+
+    private String validate(Visitor visitor) {
+        Set<ConstraintViolation<Visitor>> violations = validator.validate(visitor);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Visitor> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (PhoneNumbers.normalize(visitor.getPhoneNumber()) == null) {
+            return "phoneNumber is not a valid phone number";
+        }
+        return null;
+    }
+
+    private static Visitor toVisitor(Long tenantId, List<String> record, Map<String, Integer> columns) {
+        Visitor visitor = new Visitor();
+        visitor.setTenantId(tenantId);
+        visitor.setFirstName(field(record, columns, "firstname"));
+        visitor.setLastName(field(record, columns, "lastname"));
+        visitor.setPhoneNumber(field(record, columns, "phonenumber"));
+        visitor.setEmail(field(record, columns, "email"));
+        return visitor;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Map<String, Integer> columnIndex(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // "First Name", "first_name" and "firstName" all map to "firstname"
+            String name = header.get(i).replaceAll("[^A-Za-z]", "").toLowerCase(Locale.ROOT);
+            if (name.equals("phone")) {
+                name = "phonenumber";
+            }
+            columns.putIfAbsent(name, i);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,115 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Visitor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process feed of newly created visitors, per tenant, for live views.
+ * <p>
+ * {@link #publish} only buffers; a ticker hands each tenant's buffered arrivals to that tenant's subscribers as one
+ * delta, so a subscriber gets at most one update per interval however busy intake is. Tenants without subscribers
+ * are not buffered. Single node only: views on other nodes see new visitors on their next query.
+ */
+@Service
+public class VisitorFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitorFeed.class);
+
+    private final Map<Long, Set<Consumer<List<Arrival>>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Queue<Arrival>> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    @Value("${visitors.feed.interval-ms:1000}")
+    private long intervalMs;
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "visitor-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Subscribes to a tenant's new visitors. The listener runs on the feed thread and must not block.
+     *
+     * @return a handle that removes the subscription
+     */
+    public Runnable subscribe(Long tenantId, Consumer<List<Arrival>> listener) {
+        subscribers.computeIfAbsent(tenantId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+        return () -> subscribers.computeIfPresent(tenantId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * Buffers committed, newly created visitors for the next delta.
+     */
+    public void publish(List<Visitor> visitors) {
+        Instant now = Instant.now();
+        for (Visitor visitor : visitors) {
+            Long tenantId = visitor.getTenant() == null ? null : visitor.getTenant().getId();
+            if (tenantId != null && subscribers.containsKey(tenantId)) {
+                pending.computeIfAbsent(tenantId, id -> new ConcurrentLinkedQueue<>()).add(Arrival.of(visitor, now));
+            }
+        }
+    }
+
+    private void flush() {
+        for (Map.Entry<Long, Queue<Arrival>> entry : pending.entrySet()) {
+            List<Arrival> delta = new ArrayList<>();
+            Arrival arrival;
+            while ((arrival = entry.getValue().poll()) != null) {
+                delta.add(arrival);
+            }
+            if (delta.isEmpty()) {
+                continue;
+            }
+            List<Arrival> unmodifiable = List.copyOf(delta);
+            for (Consumer<List<Arrival>> listener : subscribers.getOrDefault(entry.getKey(), Set.of())) {
+                try {
+                    listener.accept(unmodifiable);
+                } catch (RuntimeException e) {
+                    log.warn("Visitor feed listener failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Immutable copy of what a live view shows, so one instance can be shared across sessions.
+     */
+    public record Arrival(Long visitorId, String firstName, String lastName, String phoneNumber, Instant arrivedAt) {
+
+        static Arrival of(Visitor visitor, Instant arrivedAt) {
+            return new Arrival(visitor.getId(), visitor.getFirstName(), visitor.getLastName(),
+                    visitor.getPhoneNumber(), arrivedAt);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.repository.VisitorRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch insert-or-update of visitors keyed by tenant and normalized phone number.
+ */
+@Component
+public class VisitorUpserter {
+
+    private final VisitorRepository visitorRepository;
+
+    public VisitorUpserter(VisitorRepository visitorRepository) {
+        this.visitorRepository = visitorRepository;
+    }
+
+    /**
+     * Saves a batch inside the caller's transaction, merging each submission into the tenant's existing visitor with
+     * the same normalized number (and into other submissions for that number in the batch) instead of creating a
+     * duplicate. One lookup per tenant.
+     *
+     * @return the visitors that were newly created
+     */
+    public List<Visitor> upsert(List<Visitor> submitted) {
+        List<Visitor> created = new ArrayList<>(submitted.size());
+        Map<Long, Map<String, Visitor>> byTenant = new HashMap<>();
+        for (Visitor visitor : submitted) {
+            String phone = PhoneNumbers.normalize(visitor.getPhoneNumber());
+            if (visitor.getTenant() == null || phone == null) {
+                created.add(visitor);
+            } else {
+                // The latest submission for a number wins
+                byTenant.computeIfAbsent(visitor.getTenant().getId(), id -> new LinkedHashMap<>()).put(phone, visitor);
+            }
+        }
+        for (Map.Entry<Long, Map<String, Visitor>> tenant : byTenant.entrySet()) {
+            Map<String, Visitor> existing = new HashMap<>();
+            for (Visitor visitor : visitorRepository.findByTenantIdAndNormalizedPhoneIn(tenant.getKey(),
+                    tenant.getValue().keySet())) {
+                existing.put(visitor.getNormalizedPhone(), visitor);
+            }
+            tenant.getValue().forEach((phone, submission) -> {
+                Visitor returning = existing.get(phone);
+                if (returning == null) {
+                    created.add(submission);
+                } else {
+                    // Managed entity; flushed on commit
+                    returning.setFirstName(submission.getFirstName());
+                    returning.setLastName(submission.getLastName());
+                    returning.setPhoneNumber(submission.getPhoneNumber());
+                    if (submission.getEmail() != null) {
+                        returning.setEmail(submission.getEmail());
+                    }
+                }
+            });
+        }
+        visitorRepository.saveAll(created);
+        return created;
+    }
+}
@@ -1,14 +1,400 @@
 package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.entity.VisitorWorkflowState;
+import com.faithtech.sms.data.entity.Workflow;
+import com.faithtech.sms.data.enums.MessageStatus;
+import com.faithtech.sms.data.enums.VisitorStatus;
+import com.faithtech.sms.data.enums.WorkflowStatus;
+import com.faithtech.sms.data.repository.VisitorWorkflowStateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Fires workflow steps at their due time.
+ * <p>
+ * Steps due within the look-ahead window are pulled from the (status, next_execution_at) index into an
+ * in-memory min-heap ({@link DelayQueue}); a single dispatcher thread sleeps until the head of the heap is due.
+ * The database is only consulted for the next window, never scanned as a whole.
+ * <p>
+ * Every node runs this scheduler against the same table, so due rows are claimed before they are fired: the
+ * dispatcher drains all due entries from the heap, leases them with one conditional UPDATE (lease owner plus expiry),
+ * and only the rows this node won are executed, in parallel, on the worker pool. A node that dies mid-batch simply
+ * lets its leases expire; the rows are picked up again by the next window load on any node.
+ * <p>
+ * Due times are computed in the tenant's time zone by {@link SendWindowPolicy}, which defers steps out of quiet hours
+ * and spreads the deferred ones across the start of the send window.
+ * <p>
+ * Firing a step reads the state with its visitor in one query, renders the message from the cached
+ * {@link WorkflowPlan} and writes the advanced state back, releasing the lease. The text goes to the
+ * {@link SmsDispatcher} only once that transaction has committed: a rollback or a crash before the commit leaves the
+ * step unsent for the next lease holder, and a crash after it loses at most that one text, but no step is ever sent
+ * twice. The state is versioned: a worker that outlives its lease and finds the row re-claimed by another node fails
+ * the advance on commit and sends nothing.
+ */
 @Service
+// Eager under the fast-start profile too: nothing else would start the scheduler
+@Lazy(false)
 @EnableScheduling
 public class WorkflowEngineService {
 
-    @Scheduled(fixedRate = 60000)
+    private static final Logger log = LoggerFactory.getLogger(WorkflowEngineService.class);
+
+    static final Set<WorkflowStatus> ACTIVE_STATUSES = EnumSet.of(WorkflowStatus.PENDING, WorkflowStatus.IN_PROGRESS);
+
+    private final VisitorWorkflowStateRepository stateRepository;
+    private final WorkflowPlanCache planCache;
+    private final TenantRegistry tenantRegistry;
+    private final SendWindowPolicy sendWindowPolicy;
+    private final SmsDispatcher smsDispatcher;
+    private final MessageEventWriter messageEventWriter;
+    private final TraceLinks traceLinks;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final DelayQueue<ScheduledStep> dueSteps = new DelayQueue<>();
+    private final Set<Long> scheduledIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    @Value("${workflow.scheduler.lookahead-seconds:120}")
+    private long lookaheadSeconds;
+
+    @Value("${workflow.scheduler.max-window-size:5000}")
+    private int maxWindowSize;
+
+    @Value("${workflow.scheduler.claim-batch-size:100}")
+    private int claimBatchSize;
+
+    @Value("${workflow.scheduler.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${workflow.scheduler.workers:4}")
+    private int workerCount;
+
+    @Value("${workflow.node-id:#{null}}")
+    private String nodeId;
+
+    private volatile Instant horizon = Instant.EPOCH;
+    private Thread dispatcher;
+    private ExecutorService workers;
+
+    public WorkflowEngineService(VisitorWorkflowStateRepository stateRepository,
+            WorkflowPlanCache planCache,
+            TenantRegistry tenantRegistry,
+            SendWindowPolicy sendWindowPolicy,
+            SmsDispatcher smsDispatcher,
+            MessageEventWriter messageEventWriter,
+            TraceLinks traceLinks,
+            MeterRegistry meterRegistry,
+            TransactionTemplate transactionTemplate) {
+        this.stateRepository = stateRepository;
+        this.planCache = planCache;
+        this.tenantRegistry = tenantRegistry;
+        this.sendWindowPolicy = sendWindowPolicy;
+        this.smsDispatcher = smsDispatcher;
+        this.messageEventWriter = messageEventWriter;
+        this.traceLinks = traceLinks;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "workflow-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatchLoop, "workflow-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.interrupt();
+        workers.shutdown();
+    }
+
+    /**
+     * Loads the next window of due steps into the heap. The refresh interval must stay below the look-ahead.
+     */
+    @Scheduled(fixedDelayString = "${workflow.scheduler.refresh-interval-ms:60000}")
     public void checkWorkflows() {
-        System.out.println("Checking for due texts...");
+        Instant nextHorizon = Instant.now().plusSeconds(lookaheadSeconds);
+        stateRepository.findDueSteps(ACTIVE_STATUSES, nextHorizon, PageRequest.ofSize(maxWindowSize))
+                .forEach(step -> enqueue(step.getId(), step.getNextExecutionAt()));
+        horizon = nextHorizon;
+    }
+
+    /**
+     * Starts each visitor on their tenant's default workflow. Must be called inside the transaction that saved the
+     * visitors; the new states are scheduled once it commits.
+     */
+    public void enroll(List<Visitor> visitors) {
+        Instant now = Instant.now();
+        List<VisitorWorkflowState> states = new ArrayList<>(visitors.size());
+        for (Visitor visitor : visitors) {
+            if (visitor.getTenant() == null) {
+                continue;
+            }
+            Tenant tenant = tenantRegistry.findById(visitor.getTenant().getId()).orElse(null);
+            planCache.defaultPlanFor(visitor.getTenant().getId()).ifPresent(plan -> {
+                WorkflowPlan.Step first = plan.first();
+                if (first == null) {
+                    return;
+                }
+                Workflow workflow = new Workflow();
+                workflow.setId(plan.workflowId());
+                VisitorWorkflowState state = new VisitorWorkflowState();
+                state.setTenant(visitor.getTenant());
+                state.setVisitor(visitor);
+                state.setWorkflow(workflow);
+                state.setCurrentStepOrder(first.order());
+                state.setStartedAt(now);
+                state.setNextExecutionAt(sendWindowPolicy.adjust(now.plus(first.delay()), tenant, visitor.getId()));
+                state.setStatus(WorkflowStatus.PENDING);
+                state.setIntakeTrace(visitor.getIntakeTrace());
+                states.add(state);
+            });
+        }
+        if (states.isEmpty()) {
+            return;
+        }
+        stateRepository.saveAll(states);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    states.forEach(WorkflowEngineService.this::schedule);
+                }
+            });
+        } else {
+            states.forEach(this::schedule);
+        }
+    }
+
+    /**
+     * Registers a newly created or rescheduled state. States beyond the current window are left to the next load.
+     */
+    public void schedule(VisitorWorkflowState state) {
+        if (state.getId() == null || state.getNextExecutionAt() == null || !ACTIVE_STATUSES.contains(state.getStatus())) {
+            return;
+        }
+        if (!state.getNextExecutionAt().isAfter(horizon)) {
+            enqueue(state.getId(), state.getNextExecutionAt());
+        }
+    }
+
+    private void enqueue(Long stateId, Instant dueAt) {
+        if (scheduledIds.add(stateId)) {
+            dueSteps.put(new ScheduledStep(stateId, dueAt));
+        }
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Map<Long, ScheduledStep> batch = new HashMap<>();
+                ScheduledStep step = dueSteps.take();
+                do {
+                    scheduledIds.remove(step.stateId());
+                    batch.put(step.stateId(), step);
+                } while (batch.size() < claimBatchSize && (step = dueSteps.poll()) != null);
+                claimAndFire(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Workflow dispatch failed", e);
+            }
+        }
+    }
+
+    private void claimAndFire(Map<Long, ScheduledStep> batch) {
+        // A token unique to this claim, so the rows won can be read back exactly
+        String leaseOwner = nodeId + "#" + claimSequence.incrementAndGet();
+        Instant now = Instant.now();
+        List<Long> claimed = transactionTemplate.execute(tx -> {
+            stateRepository.claim(batch.keySet(), ACTIVE_STATUSES, leaseOwner, now.plusSeconds(leaseSeconds), now);
+            return stateRepository.findIdsByLeaseOwner(batch.keySet(), leaseOwner);
+        });
+        for (Long stateId : claimed) {
+            ScheduledStep step = batch.get(stateId);
+            workers.execute(() -> fire(step, leaseOwner));
+        }
+    }
+
+    private void fire(ScheduledStep step, String leaseOwner) {
+        try {
+            Fired fired = transactionTemplate.execute(tx -> {
+                VisitorWorkflowState state = stateRepository.findWithVisitorById(step.stateId()).orElse(null);
+                if (state == null || !leaseOwner.equals(state.getLeaseOwner())) {
+                    return null;
+                }
+                state.setLeaseOwner(null);
+                state.setLeaseExpiresAt(null);
+                // The row may have been advanced, cancelled or rescheduled since it was loaded into the heap
+                StepText text = null;
+                if (ACTIVE_STATUSES.contains(state.getStatus())
+                        && Objects.equals(state.getNextExecutionAt(), step.dueAt())) {
+                    text = executeStep(state);
+                }
+                return new Fired(state, text);
+            });
+            if (fired == null) {
+                return;
+            }
+            // The advance is committed; from here the step can no longer be claimed and sent again
+            if (fired.text() != null) {
+                send(fired.text());
+            }
+            schedule(fired.state());
+        } catch (OptimisticLockingFailureException e) {
+            // The lease ran out and another node re-claimed, cancelled or fired the row; it owns the step now
+            log.warn("Workflow step {} changed under an expired lease; not sending", step.stateId());
+        } catch (RuntimeException e) {
+            log.error("Workflow step {} failed", step.stateId(), e);
+            transactionTemplate.executeWithoutResult(tx -> stateRepository.releaseLease(step.stateId(), leaseOwner));
+        }
+    }
+
+    /**
+     * Advances the state past its current step.
+     *
+     * @return the text to send once the advance has committed, or null if nothing is sent now
+     */
+    private StepText executeStep(VisitorWorkflowState state) {
+        if (state.getVisitor().getStatus() == VisitorStatus.OPTED_OUT) {
+            state.setStatus(WorkflowStatus.CANCELLED);
+            state.setNextExecutionAt(null);
+            return null;
+        }
+        // getId() on the lazy workflow proxy reads the foreign key without loading the workflow
+        WorkflowPlan plan = planCache.planFor(state.getWorkflow().getId());
+        Tenant tenant = tenantRegistry.findById(plan.tenantId()).orElse(null);
+        // Quiet hours may have changed since the step was scheduled
+        Instant now = Instant.now();
+        Instant allowed = sendWindowPolicy.adjust(now, tenant, state.getId());
+        if (allowed.isAfter(now)) {
+            state.setNextExecutionAt(allowed);
+            return null;
+        }
+
+        WorkflowPlan.Step current = plan.stepAt(state.getCurrentStepOrder());
+        StepText text = null;
+        if (current != null) {
+            Visitor visitor = state.getVisitor();
+            boolean firstText = current == plan.first();
+            String from = tenant == null ? null : tenant.getTwilioPhoneNumber();
+            String body = current.message().render(visitor, tenant);
+            OutboundSms sms = new OutboundSms(from, visitor.getNormalizedPhone(), body);
+            // The intake's trace ended long ago; the first text links to it rather than parenting under it
+            text = new StepText(sms, plan.tenantId(), tenant == null ? "unknown" : tenant.getSlug(), state.getId(),
+                    visitor.getId(), current.order(), firstText ? state.getStartedAt() : null,
+                    firstText ? state.getIntakeTrace() : null);
+        }
+
+        WorkflowPlan.Step next = current == null ? null : plan.after(current);
+        if (next == null) {
+            state.setStatus(WorkflowStatus.COMPLETED);
+            state.setNextExecutionAt(null);
+        } else {
+            state.setCurrentStepOrder(next.order());
+            state.setStatus(WorkflowStatus.IN_PROGRESS);
+            state.setNextExecutionAt(sendWindowPolicy.adjust(now.plus(next.delay()), tenant, state.getId()));
+        }
+        return text;
+    }
+
+    private void send(StepText text) {
+        Span span = traceLinks.startSpan("workflow.step", null, text.intakeTrace())
+                .tag("tenant", text.tenantTag())
+                .tag("workflow.step", String.valueOf(text.stepOrder()));
+        try (Tracer.SpanInScope scope = traceLinks.tracer().withSpan(span)) {
+            smsDispatcher.submit(text.sms()).whenComplete((sid, e) -> {
+                if (e == null) {
+                    messageEventWriter.record(sid, text.tenantId(), text.stateId(), MessageStatus.QUEUED, null);
+                    if (text.enrolledAt() != null) {
+                        firstTextTimer(text.tenantTag()).record(Duration.between(text.enrolledAt(), Instant.now()));
+                    }
+                    return;
+                }
+                log.warn("Text to visitor {} failed: {}", text.visitorId(), e.getMessage());
+                // Never reached Twilio, so there is no SID; record the failure under a local one
+                messageEventWriter.record("local-" + UUID.randomUUID(), text.tenantId(), text.stateId(),
+                        MessageStatus.FAILED, null);
+            });
+        } finally {
+            span.end();
+        }
+    }
+
+    // Enrollment to the first text accepted by the gateway: what a visitor waits after filling in the form
+    private Timer firstTextTimer(String tenant) {
+        return Timer.builder("workflow.first_text.delay")
+                .tag("tenant", tenant)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record Fired(VisitorWorkflowState state, StepText text) {
+    }
+
+    // A rendered step text, held until the transaction that advanced past the step has committed.
+    // enrolledAt and intakeTrace are only set for a visitor's first text.
+    private record StepText(OutboundSms sms, Long tenantId, String tenantTag, Long stateId, Long visitorId,
+            int stepOrder, Instant enrolledAt, String intakeTrace) {
+    }
+
+    private record ScheduledStep(Long stateId, Instant dueAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), dueAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return dueAt.compareTo(((ScheduledStep) other).dueAt);
+        }
     }
 }
@@ -0,0 +1,76 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.repository.VisitorWorkflowStateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-tenant gauges of workflow steps that are due ({@code workflow.steps.due}) and overdue by more than
+ * {@code metrics.workflow.overdue-after-seconds} ({@code workflow.steps.overdue}). A growing overdue count means the
+ * scheduler or the SMS gateway is falling behind. Counted with one grouped query per refresh rather than per scrape.
+ */
+@Component
+@Lazy(false)
+public class WorkflowMetrics {
+
+    private final VisitorWorkflowStateRepository stateRepository;
+    private final TenantRegistry tenantRegistry;
+    private final MultiGauge due;
+    private final MultiGauge overdue;
+
+    @Value("${metrics.workflow.overdue-after-seconds:300}")
+    private long overdueAfterSeconds;
+
+    public WorkflowMetrics(VisitorWorkflowStateRepository stateRepository,
+            TenantRegistry tenantRegistry,
+            MeterRegistry meterRegistry) {
+        this.stateRepository = stateRepository;
+        this.tenantRegistry = tenantRegistry;
+        this.due = MultiGauge.builder("workflow.steps.due")
+                .description("Active workflow steps whose send time has passed")
+                .register(meterRegistry);
+        this.overdue = MultiGauge.builder("workflow.steps.overdue")
+                .description("Due workflow steps older than the overdue threshold")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.workflow.refresh-interval-ms:30000}")
+    public void refresh() {
+        Instant now = Instant.now();
+        // Tenants with nothing due still report zero, so dashboards and alerts see a value
+        Map<Long, long[]> counts = new HashMap<>();
+        for (Tenant tenant : tenantRegistry.findAll()) {
+            counts.put(tenant.getId(), new long[2]);
+        }
+        for (VisitorWorkflowStateRepository.TenantBacklog backlog : stateRepository.countBacklogByTenant(
+                WorkflowEngineService.ACTIVE_STATUSES, now, now.minusSeconds(overdueAfterSeconds))) {
+            long[] tenantCounts = counts.computeIfAbsent(backlog.getTenantId(), id -> new long[2]);
+            tenantCounts[0] = backlog.getDue();
+            tenantCounts[1] = backlog.getOverdue() == null ? 0 : backlog.getOverdue();
+        }
+        List<MultiGauge.Row<?>> dueRows = counts.entrySet().stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(tags(entry.getKey()), entry.getValue()[0]))
+                .toList();
+        List<MultiGauge.Row<?>> overdueRows = counts.entrySet().stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(tags(entry.getKey()), entry.getValue()[1]))
+                .toList();
+        due.register(dueRows, true);
+        overdue.register(overdueRows, true);
+    }
+
+    private Tags tags(Long tenantId) {
+        String tenant = tenantRegistry.findById(tenantId).map(Tenant::getSlug).orElse(String.valueOf(tenantId));
+        return Tags.of("tenant", tenant);
+    }
+}
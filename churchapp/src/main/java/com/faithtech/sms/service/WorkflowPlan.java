@@ -0,0 +1,47 @@
+package com.faithtech.sms.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Immutable, compiled form of a workflow: its steps sorted by {@code step_order}, with templates already parsed.
+ * <p>
+ * Steps are addressed by their {@code step_order}, which is what {@code VisitorWorkflowState.currentStepOrder}
+ * stores. Orders need not start at zero or be contiguous.
+ */
+public record WorkflowPlan(Long workflowId, Long tenantId, List<Step> steps) {
+
+    public WorkflowPlan {
+        steps = List.copyOf(steps);
+    }
+
+    public record Step(int order, Duration delay, MessageTemplate message) {
+    }
+
+    /**
+     * @return the first step, or null for a workflow without steps
+     */
+    public Step first() {
+        return steps.isEmpty() ? null : steps.get(0);
+    }
+
+    /**
+     * @return the step with {@code order}, or the next one after it if that step was removed since the state was
+     * scheduled; null once the workflow is finished
+     */
+    public Step stepAt(int order) {
+        for (Step step : steps) {
+            if (step.order() >= order) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the step following {@code current}, or null if it is the last
+     */
+    public Step after(Step current) {
+        return stepAt(current.order() + 1);
+    }
+}
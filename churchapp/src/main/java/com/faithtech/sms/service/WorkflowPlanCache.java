@@ -0,0 +1,151 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Workflow;
+import com.faithtech.sms.data.entity.WorkflowStep;
+import com.faithtech.sms.data.repository.WorkflowRepository;
+import com.faithtech.sms.data.repository.WorkflowStepRepository;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiles workflows into {@link WorkflowPlan}s on first use and keeps them in memory.
+ * Saving a {@link Workflow} or {@link WorkflowStep} evicts the affected plans (see {@link EntityListener}).
+ * <p>
+ * Every eviction bumps a generation counter. A plan or default lookup is only stored if no eviction happened while
+ * it was being loaded, so a load that read the data just before an edit committed cannot cache the old version
+ * after the edit's eviction has run.
+ * <p>
+ * Edits made on another node fire no listener here. {@link #checkForChanges} polls the row counts and latest
+ * {@code updated_at} of both tables and drops every plan when they move.
+ */
+@Service
+public class WorkflowPlanCache {
+
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowStepRepository stepRepository;
+    private final Map<Long, WorkflowPlan> plans = new ConcurrentHashMap<>();
+    // Empty for tenants without a default workflow, so intakes for them do not query on every submission
+    private final Map<Long, Optional<Long>> defaultWorkflowByTenant = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    // Counts and latest updates last seen by checkForChanges; null until the first check
+    private volatile List<Object> version;
+
+    public WorkflowPlanCache(WorkflowRepository workflowRepository, WorkflowStepRepository stepRepository) {
+        this.workflowRepository = workflowRepository;
+        this.stepRepository = stepRepository;
+    }
+
+    public WorkflowPlan planFor(Long workflowId) {
+        WorkflowPlan plan = plans.get(workflowId);
+        if (plan != null) {
+            return plan;
+        }
+        long seen = generation.get();
+        return storeUnlessEvicted(plans, workflowId, compile(workflowId), seen);
+    }
+
+    public Optional<WorkflowPlan> defaultPlanFor(Long tenantId) {
+        Optional<Long> workflowId = defaultWorkflowByTenant.get(tenantId);
+        if (workflowId == null) {
+            long seen = generation.get();
+            workflowId = storeUnlessEvicted(defaultWorkflowByTenant, tenantId,
+                    workflowRepository.findFirstByTenantIdAndIsDefaultTrue(tenantId).map(Workflow::getId), seen);
+        }
+        return workflowId.map(this::planFor);
+    }
+
+    // Caches the loaded value only if nothing was evicted since generation was read as seen; returns it either way
+    private <K, V> V storeUnlessEvicted(Map<K, V> cache, K key, V loaded, long seen) {
+        V stored = cache.compute(key, (k, cached) -> cached != null ? cached
+                : generation.get() == seen ? loaded : null);
+        return stored != null ? stored : loaded;
+    }
+
+    private WorkflowPlan compile(Long workflowId) {
+        Workflow workflow = workflowRepository.findById(workflowId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown workflow: " + workflowId));
+        List<WorkflowStep> steps = stepRepository.findByWorkflowIdOrderByStepOrder(workflowId);
+        List<WorkflowPlan.Step> compiled = new ArrayList<>(steps.size());
+        for (WorkflowStep step : steps) {
+            compiled.add(new WorkflowPlan.Step(step.getStepOrder(), Duration.ofMinutes(step.getDelayMinutes()),
+                    MessageTemplate.parse(step.getMessageTemplate() == null ? "" : step.getMessageTemplate())));
+        }
+        Long tenantId = workflow.getTenant() == null ? null : workflow.getTenant().getId();
+        return new WorkflowPlan(workflowId, tenantId, compiled);
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.plan-cache.check-interval-ms:30000}")
+    public void checkForChanges() {
+        List<Object> current = Arrays.asList(workflowRepository.count(), workflowRepository.findLatestUpdate(),
+                stepRepository.count(), stepRepository.findLatestUpdate());
+        if (!current.equals(version)) {
+            // Also on the first check: plans compiled before it may predate a change it now counts
+            version = current;
+            evictAll();
+        }
+    }
+
+    void evict(Long workflowId) {
+        // Bumped before removing, so a load that finishes after the remove sees the change and does not store
+        generation.incrementAndGet();
+        plans.remove(workflowId);
+        // Cheap to rebuild, and the default flag may have moved between workflows
+        defaultWorkflowByTenant.clear();
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        plans.clear();
+        defaultWorkflowByTenant.clear();
+    }
+
+    /**
+     * JPA listener on {@link Workflow} and {@link WorkflowStep}; evicts once the saving transaction commits.
+     */
+    public static class EntityListener {
+
+        private final WorkflowPlanCache cache;
+
+        public EntityListener(WorkflowPlanCache cache) {
+            this.cache = cache;
+        }
+
+        @PostPersist
+        @PostUpdate
+        @PostRemove
+        void changed(Object entity) {
+            Long workflowId;
+            if (entity instanceof Workflow workflow) {
+                workflowId = workflow.getId();
+            } else if (entity instanceof WorkflowStep step && step.getWorkflow() != null) {
+                workflowId = step.getWorkflow().getId();
+            } else {
+                return;
+            }
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                cache.evict(workflowId);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(workflowId);
+                }
+            });
+        }
+    }
+}
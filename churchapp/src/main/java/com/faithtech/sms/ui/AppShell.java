@@ -0,0 +1,11 @@
+package com.faithtech.sms.ui;
+
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
+
+/**
+ * Application-wide page settings. Push lets server threads update open views, e.g. the live visitor feed.
+ */
+@Push
+public class AppShell implements AppShellConfigurator {
+}
@@ -2,6 +2,7 @@ package com.faithtech.sms.ui.views;
 
 import com.faithtech.sms.data.entity.User;
 import com.faithtech.sms.data.repository.UserRepository;
+import com.faithtech.sms.security.TenantContext;
 import com.faithtech.sms.ui.MainLayout;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
@@ -16,10 +17,12 @@ import org.springframework.context.annotation.Role;
 public class UserView extends VerticalLayout {
 
     private final UserRepository repository;
+    private final Long tenantId;
     private final Grid<User> grid = new Grid<>(User.class, false);
 
     public UserView(UserRepository repository) {
         this.repository = repository;
+        this.tenantId = TenantContext.requireTenantId();
         addClassName("user-view");
         setSizeFull();
         setPadding(true);
@@ -40,6 +43,6 @@ public class UserView extends VerticalLayout {
     }
 
     private void updateList() {
-        grid.setItems(repository.findAll());
+        grid.setItems(repository.findByTenantIdOrderByUsername(tenantId));
     }
 }
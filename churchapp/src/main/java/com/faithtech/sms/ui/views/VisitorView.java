@@ -2,34 +2,78 @@ package com.faithtech.sms.ui.views;
 
 import com.faithtech.sms.data.entity.Visitor;
 import com.faithtech.sms.data.repository.VisitorRepository;
+import com.faithtech.sms.security.TenantContext;
+import com.faithtech.sms.service.PhoneNumbers;
+import com.faithtech.sms.service.VisitorCsvService;
+import com.faithtech.sms.service.VisitorFeed;
 import com.faithtech.sms.ui.MainLayout;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.dependency.StyleSheet;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.component.upload.receivers.FileBuffer;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.data.binder.Binder;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import com.vaadin.flow.theme.lumo.LumoUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.List;
+
 @PageTitle("Visitors | FaithTech SMS")
 @Route(value = "visitors", layout = MainLayout.class)
 @StyleSheet("/css/church-theme.css")
 public class VisitorView extends VerticalLayout {
 
+    private static final Logger log = LoggerFactory.getLogger(VisitorView.class);
+
+    private static final int MAX_ARRIVALS = 50;
+    private static final DateTimeFormatter ARRIVAL_TIME = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
+
     private final VisitorRepository repository;
+    private final VisitorCsvService csvService;
+    private final VisitorFeed visitorFeed;
+    private final Long tenantId;
     private final Grid<Visitor> grid = new Grid<>(Visitor.class, false);
+    private final Grid<VisitorFeed.Arrival> arrivalsGrid = new Grid<>(VisitorFeed.Arrival.class, false);
+    private final List<VisitorFeed.Arrival> arrivals = new ArrayList<>();
+    private Runnable feedSubscription;
+    private final TextField filterText = new TextField();
+    private final ProgressBar importProgressBar = new ProgressBar();
+    private final Span importStatus = new Span();
     private final VisitorForm form;
 
-    public VisitorView(VisitorRepository repository) {
+    public VisitorView(VisitorRepository repository, VisitorCsvService csvService, VisitorFeed visitorFeed) {
         this.repository = repository;
+        this.csvService = csvService;
+        this.visitorFeed = visitorFeed;
+        this.tenantId = TenantContext.requireTenantId();
         this.form = new VisitorForm();
 
         addClassName("visitor-view");
@@ -38,9 +82,10 @@ public class VisitorView extends VerticalLayout {
         setSpacing(true);
 
         configureGrid();
+        configureArrivals();
         configureForm();
 
-        add(getToolbar(), getContent());
+        add(getToolbar(), new H3("New arrivals"), arrivalsGrid, getContent());
         updateList();
         closeEditor();
     }
@@ -57,11 +102,11 @@ public class VisitorView extends VerticalLayout {
     private void configureGrid() {
         grid.addClassName("visitor-grid");
         grid.setSizeFull();
-        grid.addColumn(Visitor::getFirstName).setHeader("First Name");
-        grid.addColumn(Visitor::getLastName).setHeader("Last Name");
-        grid.addColumn(Visitor::getPhoneNumber).setHeader("Phone");
-        grid.addColumn(Visitor::getEmail).setHeader("Email");
-        grid.addColumn(Visitor::getStatus).setHeader("Status");
+        grid.addColumn(Visitor::getFirstName).setHeader("First Name").setSortProperty("firstName");
+        grid.addColumn(Visitor::getLastName).setHeader("Last Name").setSortProperty("lastName");
+        grid.addColumn(Visitor::getPhoneNumber).setHeader("Phone").setSortProperty("phoneNumber");
+        grid.addColumn(Visitor::getEmail).setHeader("Email").setSortProperty("email");
+        grid.addColumn(Visitor::getStatus).setHeader("Status").setSortProperty("status");
 
         grid.getColumns().forEach(col -> col.setAutoWidth(true));
         grid.addThemeVariants(GridVariant.LUMO_ROW_STRIPES);
@@ -69,6 +114,52 @@ public class VisitorView extends VerticalLayout {
         grid.asSingleSelect().addValueChangeListener(event -> editVisitor(event.getValue()));
     }
 
+    private void configureArrivals() {
+        arrivalsGrid.addClassName("arrivals-grid");
+        arrivalsGrid.setAllRowsVisible(true);
+        arrivalsGrid.setMaxHeight("14em");
+        arrivalsGrid.addColumn(arrival -> ARRIVAL_TIME.format(arrival.arrivedAt().atZone(ZoneId.systemDefault())))
+                .setHeader("Arrived");
+        arrivalsGrid.addColumn(VisitorFeed.Arrival::firstName).setHeader("First Name");
+        arrivalsGrid.addColumn(VisitorFeed.Arrival::lastName).setHeader("Last Name");
+        arrivalsGrid.addColumn(VisitorFeed.Arrival::phoneNumber).setHeader("Phone");
+        arrivalsGrid.getColumns().forEach(col -> col.setAutoWidth(true));
+        arrivalsGrid.setItems(arrivals);
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        UI ui = attachEvent.getUI();
+        // Deltas arrive on the feed thread, coalesced; push them into this UI's session without re-querying
+        feedSubscription = visitorFeed.subscribe(tenantId, delta -> {
+            try {
+                ui.access(() -> showArrivals(delta));
+            } catch (UIDetachedException e) {
+                // Closed between the delta and the access; onDetach unsubscribes
+            }
+        });
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (feedSubscription != null) {
+            feedSubscription.run();
+            feedSubscription = null;
+        }
+        super.onDetach(detachEvent);
+    }
+
+    private void showArrivals(List<VisitorFeed.Arrival> delta) {
+        for (VisitorFeed.Arrival arrival : delta) {
+            arrivals.add(0, arrival);
+        }
+        if (arrivals.size() > MAX_ARRIVALS) {
+            arrivals.subList(MAX_ARRIVALS, arrivals.size()).clear();
+        }
+        arrivalsGrid.getDataProvider().refreshAll();
+    }
+
     private void configureForm() {
         form.setWidth("25em");
         form.addListener(VisitorForm.SaveEvent.class, this::saveVisitor);
@@ -76,9 +167,12 @@ public class VisitorView extends VerticalLayout {
     }
 
     private HorizontalLayout getToolbar() {
-        TextField filterText = new TextField();
         filterText.setPlaceholder("Filter by name...");
         filterText.setClearButtonVisible(true);
+        // Debounce keystrokes so only the settled search term reaches the database
+        filterText.setValueChangeMode(ValueChangeMode.LAZY);
+        filterText.setValueChangeTimeout(300);
+        filterText.addValueChangeListener(e -> grid.getDataProvider().refreshAll());
 
         Button addVisitorButton = new Button("Add Visitor");
         addVisitorButton.addClickListener(click -> addVisitor());
@@ -87,20 +181,89 @@ public class VisitorView extends VerticalLayout {
         addVisitorButton.getStyle().set("background-color", "var(--primary-purple)");
         addVisitorButton.getStyle().set("color", "white");
 
-        HorizontalLayout toolbar = new HorizontalLayout(filterText, addVisitorButton);
+        // Spooled to a temp file rather than memory; parsed from disk row by row
+        FileBuffer buffer = new FileBuffer();
+        Upload importUpload = new Upload(buffer);
+        importUpload.setAcceptedFileTypes(".csv", "text/csv");
+        importUpload.setUploadButton(new Button("Import CSV"));
+        importUpload.setDropAllowed(false);
+        importUpload.addSucceededListener(event -> importVisitors(importUpload, buffer));
+        importProgressBar.setIndeterminate(true);
+        importProgressBar.setWidth("8em");
+        importProgressBar.setVisible(false);
+
+        Anchor exportLink = new Anchor("/admin/visitors/export", "Export CSV");
+        exportLink.getElement().setAttribute("router-ignore", true);
+
+        HorizontalLayout toolbar = new HorizontalLayout(filterText, addVisitorButton, importUpload, importProgressBar,
+                importStatus, exportLink);
         toolbar.addClassName("toolbar");
         return toolbar;
     }
 
     private void saveVisitor(VisitorForm.SaveEvent event) {
-        repository.save(event.getVisitor());
-        updateList();
+        Visitor visitor = event.getVisitor();
+        Visitor existing = repository.findByTenantIdAndNormalizedPhone(tenantId,
+                PhoneNumbers.normalize(visitor.getPhoneNumber())).orElse(null);
+        if (existing != null && !existing.getId().equals(visitor.getId())) {
+            Notification.show("A visitor with this phone number already exists: "
+                    + existing.getFirstName() + " " + existing.getLastName());
+            return;
+        }
+        repository.save(visitor);
+        grid.getDataProvider().refreshAll();
         closeEditor();
     }
 
+    private void importVisitors(Upload upload, FileBuffer buffer) {
+        UI ui = UI.getCurrent();
+        upload.setVisible(false);
+        importProgressBar.setVisible(true);
+        importStatus.setText("Importing...");
+        // Runs on the import thread; this listener returns at once and releases the session lock
+        csvService.importCsvAsync(tenantId, buffer.getFileData().getFile().toPath(),
+                        progress -> updateImport(ui, () -> showImportProgress(progress)))
+                .whenComplete((result, e) -> {
+                    buffer.getFileData().getFile().delete();
+                    updateImport(ui, () -> finishImport(upload, result, e));
+                });
+    }
+
+    private void showImportProgress(VisitorCsvService.ImportProgress progress) {
+        importStatus.setText("Importing: " + progress.rowsRead() + " rows read, " + progress.imported()
+                + " imported, " + progress.rejected() + " rejected");
+    }
+
+    private void finishImport(Upload upload, VisitorCsvService.ImportResult result, Throwable failure) {
+        upload.setVisible(true);
+        importProgressBar.setVisible(false);
+        importStatus.setText("");
+        if (failure != null) {
+            // Chunks saved before the failure stay imported
+            Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+            log.error("Visitor import failed", cause);
+            Notification.show("Import failed: " + cause.getMessage());
+        } else {
+            String errors = String.join("; ", result.errors().subList(0, Math.min(3, result.errors().size())));
+            Notification.show("Imported " + result.imported() + " visitors, rejected " + result.rejected()
+                    + (errors.isEmpty() ? "" : ": " + errors));
+        }
+        grid.getDataProvider().refreshAll();
+    }
+
+    private static void updateImport(UI ui, Runnable update) {
+        try {
+            ui.access(update::run);
+        } catch (UIDetachedException e) {
+            // The user left the view; the import carries on regardless
+        }
+    }
+
     private void addVisitor() {
         grid.asSingleSelect().clear();
-        editVisitor(new Visitor());
+        Visitor visitor = new Visitor();
+        visitor.setTenantId(tenantId);
+        editVisitor(visitor);
     }
 
     private void editVisitor(Visitor visitor) {
@@ -120,7 +283,21 @@ public class VisitorView extends VerticalLayout {
     }
 
     private void updateList() {
-        grid.setItems(repository.findAll());
+        // Fetch only the rows in view; the grid pages through the table as it scrolls
+        grid.setItems(query -> {
+            String term = filterText.getValue();
+            if (term == null || term.isBlank()) {
+                return repository.findByTenantId(tenantId, toPageRequest(query)).stream();
+            }
+            return repository.searchByPrefix(tenantId, VisitorRepository.prefixPattern(term),
+                    VisitorRepository.phonePrefixPattern(term), toPageRequest(query)).stream();
+        });
+    }
+
+    private static PageRequest toPageRequest(Query<Visitor, ?> query) {
+        PageRequest pageRequest = VaadinSpringDataHelpers.toSpringPageRequest(query);
+        // Offset paging needs a deterministic order, so fall back to the primary key
+        return pageRequest.getSort().isSorted() ? pageRequest : pageRequest.withSort(Sort.by("id"));
     }
 
     public static class VisitorForm extends com.vaadin.flow.component.formlayout.FormLayout {
@@ -137,6 +314,9 @@ public class VisitorView extends VerticalLayout {
 
         public VisitorForm() {
             addClassName("visitor-form");
+            binder.forField(phoneNumber)
+                    .withValidator(value -> PhoneNumbers.normalize(value) != null, "Enter a valid phone number")
+                    .bind(Visitor::getPhoneNumber, Visitor::setPhoneNumber);
             binder.bindInstanceFields(this);
 
             // Styling buttons
@@ -168,7 +348,7 @@ public class VisitorView extends VerticalLayout {
                 binder.writeBean(visitor);
                 fireEvent(new SaveEvent(this, visitor));
             } catch (com.vaadin.flow.data.binder.ValidationException e) {
-                e.printStackTrace();
+                // The binder already shows the field errors
             }
         }
 
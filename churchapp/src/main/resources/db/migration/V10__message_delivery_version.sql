@@ -0,0 +1,2 @@
+-- Optimistic locking for delivery rows folded by several nodes at once
+ALTER TABLE message_deliveries ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- Free-text replies from visitors; ids are plain columns, like message_events
+
+CREATE SEQUENCE visitor_replies_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE visitor_replies (
+    id          BIGINT        NOT NULL PRIMARY KEY,
+    tenant_id   BIGINT,
+    visitor_id  BIGINT,
+    message_sid VARCHAR(255),
+    body        VARCHAR(1600),
+    received_at TIMESTAMP(6) WITH TIME ZONE
+);
+CREATE INDEX idx_visitor_replies_visitor ON visitor_replies (visitor_id, received_at);
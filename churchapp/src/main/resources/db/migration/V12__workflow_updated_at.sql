@@ -0,0 +1,3 @@
+-- Lets every node's WorkflowPlanCache notice edits made on another node
+ALTER TABLE workflows ADD COLUMN updated_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE workflow_steps ADD COLUMN updated_at TIMESTAMP(6) WITH TIME ZONE;
@@ -0,0 +1,2 @@
+-- Optimistic locking, so a worker whose lease ran out cannot advance a step another node has re-claimed
+ALTER TABLE visitor_workflow_states ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,60 @@
+-- Baseline schema. Kept to SQL that runs on both PostgreSQL and H2 in PostgreSQL mode.
+
+CREATE SEQUENCE tenants_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE visitors_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE visitor_workflow_states_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tenants (
+    id                  BIGINT       NOT NULL PRIMARY KEY,
+    name                VARCHAR(255),
+    slug                VARCHAR(255) UNIQUE,
+    twilio_phone_number VARCHAR(255),
+    timezone            VARCHAR(255),
+    is_active           BOOLEAN      NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE app_users (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username  VARCHAR(255) UNIQUE,
+    password  VARCHAR(255),
+    role      VARCHAR(255),
+    tenant_id BIGINT REFERENCES tenants (id)
+);
+
+CREATE TABLE workflows (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id  BIGINT REFERENCES tenants (id),
+    name       VARCHAR(255),
+    is_default BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE visitors (
+    id             BIGINT       NOT NULL PRIMARY KEY,
+    tenant_id      BIGINT REFERENCES tenants (id),
+    first_name     VARCHAR(255),
+    last_name      VARCHAR(255),
+    phone_number   VARCHAR(255) NOT NULL,
+    email          VARCHAR(255),
+    status         VARCHAR(255),
+    first_name_key VARCHAR(255),
+    last_name_key  VARCHAR(255)
+);
+
+CREATE INDEX idx_visitors_tenant_id ON visitors (tenant_id, id);
+CREATE INDEX idx_visitors_tenant_first_name_key ON visitors (tenant_id, first_name_key);
+CREATE INDEX idx_visitors_tenant_last_name_key ON visitors (tenant_id, last_name_key);
+CREATE INDEX idx_visitors_tenant_phone_number ON visitors (tenant_id, phone_number);
+
+CREATE TABLE visitor_workflow_states (
+    id                 BIGINT  NOT NULL PRIMARY KEY,
+    tenant_id          BIGINT REFERENCES tenants (id),
+    visitor_id         BIGINT REFERENCES visitors (id),
+    workflow_id        BIGINT REFERENCES workflows (id),
+    current_step_order INTEGER NOT NULL DEFAULT 0,
+    started_at         TIMESTAMP(6),
+    next_execution_at  TIMESTAMP(6),
+    status             VARCHAR(255)
+);
+
+CREATE INDEX idx_vws_status_next_execution ON visitor_workflow_states (status, next_execution_at);
+CREATE INDEX idx_vws_tenant_status_next_execution ON visitor_workflow_states (tenant_id, status, next_execution_at);
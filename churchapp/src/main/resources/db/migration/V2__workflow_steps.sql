@@ -0,0 +1,8 @@
+CREATE TABLE workflow_steps (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    workflow_id      BIGINT  REFERENCES workflows (id),
+    step_order       INTEGER NOT NULL,
+    delay_minutes    INTEGER NOT NULL,
+    message_template VARCHAR(1600),
+    CONSTRAINT uk_workflow_steps_order UNIQUE (workflow_id, step_order)
+);
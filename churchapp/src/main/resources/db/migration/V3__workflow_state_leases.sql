@@ -0,0 +1,2 @@
+ALTER TABLE visitor_workflow_states ADD COLUMN lease_owner VARCHAR(255);
+ALTER TABLE visitor_workflow_states ADD COLUMN lease_expires_at TIMESTAMP(6);
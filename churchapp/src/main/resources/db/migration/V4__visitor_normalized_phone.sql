@@ -0,0 +1,2 @@
+ALTER TABLE visitors ADD COLUMN normalized_phone VARCHAR(255);
+CREATE UNIQUE INDEX uk_visitors_tenant_normalized_phone ON visitors (tenant_id, normalized_phone);
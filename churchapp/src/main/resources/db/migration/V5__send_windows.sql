@@ -0,0 +1,7 @@
+-- Workflow times become instants; existing values are read in the session time zone
+ALTER TABLE visitor_workflow_states ALTER COLUMN started_at SET DATA TYPE TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE visitor_workflow_states ALTER COLUMN next_execution_at SET DATA TYPE TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE visitor_workflow_states ALTER COLUMN lease_expires_at SET DATA TYPE TIMESTAMP(6) WITH TIME ZONE;
+
+ALTER TABLE tenants ADD COLUMN quiet_hours_start TIME;
+ALTER TABLE tenants ADD COLUMN quiet_hours_end TIME;
@@ -0,0 +1,26 @@
+-- Delivery tracking: append-only event log plus latest state per message. No foreign keys, to keep inserts cheap.
+
+CREATE SEQUENCE message_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE message_events (
+    id                BIGINT       NOT NULL PRIMARY KEY,
+    message_sid       VARCHAR(255),
+    tenant_id         BIGINT,
+    workflow_state_id BIGINT,
+    status            VARCHAR(255),
+    error_code        VARCHAR(255),
+    occurred_at       TIMESTAMP(6) WITH TIME ZONE
+);
+CREATE INDEX idx_message_events_sid ON message_events (message_sid);
+
+CREATE TABLE message_deliveries (
+    message_sid       VARCHAR(255) NOT NULL PRIMARY KEY,
+    tenant_id         BIGINT,
+    workflow_state_id BIGINT,
+    status            VARCHAR(255),
+    error_code        VARCHAR(255),
+    updated_at        TIMESTAMP(6) WITH TIME ZONE
+);
+-- Covers the failure report's columns so it never touches the table
+CREATE INDEX idx_message_deliveries_tenant_status
+    ON message_deliveries (tenant_id, status, updated_at, message_sid, error_code);
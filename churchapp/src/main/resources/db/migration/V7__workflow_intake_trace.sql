@@ -0,0 +1 @@
+ALTER TABLE visitor_workflow_states ADD COLUMN intake_trace VARCHAR(255);
@@ -0,0 +1,11 @@
+-- current_step_order used to hold the position of the next step in the workflow (0, 1, ...). It now holds that
+-- step's step_order. Positions past the last step become one past the highest step_order.
+UPDATE visitor_workflow_states AS vws
+SET current_step_order = COALESCE(
+        (SELECT s.step_order
+         FROM workflow_steps s
+         WHERE s.workflow_id = vws.workflow_id
+           AND (SELECT COUNT(*)
+                FROM workflow_steps p
+                WHERE p.workflow_id = s.workflow_id AND p.step_order < s.step_order) = vws.current_step_order),
+        (SELECT COALESCE(MAX(s.step_order), 0) + 1 FROM workflow_steps s WHERE s.workflow_id = vws.workflow_id));
@@ -0,0 +1,174 @@
+package com.faithtech.sms.controller;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.entity.VisitorWorkflowState;
+import com.faithtech.sms.data.enums.VisitorStatus;
+import com.faithtech.sms.data.enums.WorkflowStatus;
+import com.faithtech.sms.data.repository.TenantRepository;
+import com.faithtech.sms.data.repository.VisitorReplyRepository;
+import com.faithtech.sms.data.repository.VisitorRepository;
+import com.faithtech.sms.data.repository.VisitorWorkflowStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"h2pg", "it"})
+public class SmsWebhookIntegrationTests {
+
+    // twilio.auth.token in application-it.properties
+    private static final String AUTH_TOKEN = "it-auth-token";
+    private static final String CHURCH_NUMBER = "+14705550100";
+    private static final String VISITOR_NUMBER = "+14705550111";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private VisitorRepository visitorRepository;
+
+    @Autowired
+    private VisitorWorkflowStateRepository stateRepository;
+
+    @Autowired
+    private VisitorReplyRepository replyRepository;
+
+    private Visitor visitor;
+    private VisitorWorkflowState state;
+
+    @BeforeEach
+    public void setup() {
+        Tenant tenant = tenantRepository.findBySlug("webhook-church");
+        if (tenant == null) {
+            tenant = new Tenant();
+            tenant.setName("Webhook Church");
+            tenant.setSlug("webhook-church");
+            tenant.setTwilioPhoneNumber(CHURCH_NUMBER);
+            tenant = tenantRepository.save(tenant);
+        }
+        visitor = visitorRepository.findByTenantIdAndNormalizedPhone(tenant.getId(), VISITOR_NUMBER).orElse(null);
+        if (visitor == null) {
+            visitor = new Visitor();
+            visitor.setTenant(tenant);
+            visitor.setFirstName("Stop");
+            visitor.setLastName("Test");
+            visitor.setPhoneNumber(VISITOR_NUMBER);
+        }
+        visitor.setStatus(VisitorStatus.ACTIVE);
+        visitor = visitorRepository.save(visitor);
+
+        state = new VisitorWorkflowState();
+        state.setTenant(tenant);
+        state.setVisitor(visitor);
+        state.setStatus(WorkflowStatus.PENDING);
+        state.setNextExecutionAt(Instant.now().plusSeconds(86_400));
+        state = stateRepository.save(state);
+    }
+
+    @Test
+    public void testSignedStopOptsOutAndCancelsWorkflow() throws Exception {
+        mockMvc.perform(signed(inbound("SMstop1", "STOP"))).andExpect(status().isOk());
+
+        awaitTrue(() -> visitorStatus() == VisitorStatus.OPTED_OUT);
+        awaitTrue(() -> stateRepository.findById(state.getId()).orElseThrow().getStatus() == WorkflowStatus.CANCELLED);
+    }
+
+    @Test
+    public void testReplyAfterStopIsStoredAndKeepsVisitorOptedOut() throws Exception {
+        mockMvc.perform(signed(inbound("SMstop2", "STOP"))).andExpect(status().isOk());
+        mockMvc.perform(signed(inbound("SMreply2", "Please pray for my family"))).andExpect(status().isOk());
+
+        // Same sender, so handled after the STOP
+        awaitTrue(() -> replyRepository.findByVisitorIdOrderByReceivedAt(visitor.getId()).stream()
+                .anyMatch(r -> "SMreply2".equals(r.getMessageSid())));
+        assertThat(visitorStatus()).isEqualTo(VisitorStatus.OPTED_OUT);
+    }
+
+    @Test
+    public void testUnsignedOrForgedWebhooksAreRefused() throws Exception {
+        mockMvc.perform(inbound("SMforged1", "STOP")).andExpect(status().isForbidden());
+        mockMvc.perform(inbound("SMforged2", "STOP").header("X-Twilio-Signature", "bm90IGEgc2lnbmF0dXJl"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/sms/status").param("MessageSid", "SMforged3").param("MessageStatus", "delivered"))
+                .andExpect(status().isForbidden());
+
+        Thread.sleep(200);
+        assertThat(visitorStatus()).isEqualTo(VisitorStatus.ACTIVE);
+    }
+
+    @Test
+    public void testRedeliveredSidIsHandledOnce() throws Exception {
+        mockMvc.perform(signed(inbound("SMdup1", "Thanks!"))).andExpect(status().isOk());
+        awaitTrue(() -> visitorStatus() == VisitorStatus.RESPONDED);
+
+        resetVisitorStatus();
+        mockMvc.perform(signed(inbound("SMdup1", "Thanks!"))).andExpect(status().isOk());
+
+        Thread.sleep(200);
+        assertThat(visitorStatus()).isEqualTo(VisitorStatus.ACTIVE);
+    }
+
+    private MockHttpServletRequestBuilder inbound(String sid, String body) {
+        return post("/sms/inbound")
+                .param("MessageSid", sid)
+                .param("From", VISITOR_NUMBER)
+                .param("To", CHURCH_NUMBER)
+                .param("Body", body);
+    }
+
+    // Twilio's scheme: HMAC-SHA1 over the URL followed by each parameter name and value, sorted by name
+    private static MockHttpServletRequestBuilder signed(MockHttpServletRequestBuilder request) throws Exception {
+        MockHttpServletRequest built = request.buildRequest(new MockServletContext());
+        StringBuilder data = new StringBuilder(built.getRequestURL());
+        Map<String, String[]> params = new TreeMap<>(built.getParameterMap());
+        params.forEach((name, values) -> data.append(name).append(values[0]));
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(AUTH_TOKEN.getBytes(StandardCharsets.UTF_8), "HmacSHA1"));
+        byte[] digest = mac.doFinal(data.toString().getBytes(StandardCharsets.UTF_8));
+        return request.header("X-Twilio-Signature", Base64.getEncoder().encodeToString(digest));
+    }
+
+    private VisitorStatus visitorStatus() {
+        return visitorRepository.findById(visitor.getId()).orElseThrow().getStatus();
+    }
+
+    private void resetVisitorStatus() {
+        Visitor current = visitorRepository.findById(visitor.getId()).orElseThrow();
+        current.setStatus(VisitorStatus.ACTIVE);
+        visitorRepository.save(current);
+    }
+
+    // Inbound messages are handled off the webhook thread
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met within 5 s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
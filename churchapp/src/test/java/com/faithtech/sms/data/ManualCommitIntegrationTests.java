@@ -0,0 +1,68 @@
+package com.faithtech.sms.data;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.enums.WorkflowStatus;
+import com.faithtech.sms.data.repository.TenantRepository;
+import com.faithtech.sms.data.repository.VisitorRepository;
+import com.faithtech.sms.data.repository.VisitorWorkflowStateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The postgres profile's pool settings: connections handed out with auto-commit off, and Hibernate told not to
+ * switch it. Repository calls made outside any transaction must still read, and their writes must still commit.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:manualcommit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.hikari.auto-commit=false",
+        "spring.jpa.properties.hibernate.connection.provider_disables_autocommit=true",
+        "intake.journal.path=target/it/manual-commit-journal.log"})
+@ActiveProfiles({"h2pg", "it"})
+public class ManualCommitIntegrationTests {
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private VisitorRepository visitorRepository;
+
+    @Autowired
+    private VisitorWorkflowStateRepository stateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testReadsOutsideATransactionWork() {
+        // Seeded at startup by plain repository saves; only visible here if those committed
+        assertThat(tenantRepository.findBySlug("ebenezer")).isNotNull();
+        assertThat(stateRepository.findDueSteps(EnumSet.of(WorkflowStatus.PENDING), Instant.now(),
+                PageRequest.ofSize(10))).isNotNull();
+    }
+
+    @Test
+    public void testWritesOutsideATransactionCommit() {
+        Tenant tenant = tenantRepository.findBySlug("ebenezer");
+        Visitor visitor = new Visitor();
+        visitor.setTenant(tenant);
+        visitor.setFirstName("Manual");
+        visitor.setLastName("Commit");
+        visitor.setPhoneNumber("+14705550230");
+        Long id = visitorRepository.save(visitor).getId();
+
+        // Hikari rolls back uncommitted work when a connection is returned, so the row is only here if the
+        // repository's own transaction committed it
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from visitors where id = ?", Integer.class, id);
+        assertThat(rows).isEqualTo(1);
+    }
+}
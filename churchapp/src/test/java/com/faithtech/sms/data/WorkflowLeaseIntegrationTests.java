@@ -0,0 +1,155 @@
+package com.faithtech.sms.data;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.entity.VisitorWorkflowState;
+import com.faithtech.sms.data.enums.WorkflowStatus;
+import com.faithtech.sms.data.repository.TenantRepository;
+import com.faithtech.sms.data.repository.VisitorRepository;
+import com.faithtech.sms.data.repository.VisitorWorkflowStateRepository;
+import com.faithtech.sms.data.repository.WorkflowRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two scheduler nodes claiming the same due rows, as WorkflowEngineService does on every node.
+ */
+@SpringBootTest
+@ActiveProfiles({"h2pg", "it"})
+public class WorkflowLeaseIntegrationTests {
+
+    private static final Set<WorkflowStatus> ACTIVE = EnumSet.of(WorkflowStatus.PENDING, WorkflowStatus.IN_PROGRESS);
+    private static final AtomicInteger phoneNumbers = new AtomicInteger();
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private VisitorRepository visitorRepository;
+
+    @Autowired
+    private VisitorWorkflowStateRepository stateRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testEachDueRowIsWonByExactlyOneNode() throws Exception {
+        List<Long> ids = dueStates(20);
+        Instant now = Instant.now();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Long>> nodeA = nodes.submit(() -> {
+                start.await();
+                return claim(ids, "node-a#1", now);
+            });
+            Future<List<Long>> nodeB = nodes.submit(() -> {
+                start.await();
+                return claim(ids, "node-b#1", now);
+            });
+            start.countDown();
+
+            List<Long> won = new ArrayList<>(nodeA.get());
+            won.addAll(nodeB.get());
+            assertThat(won).containsExactlyInAnyOrderElementsOf(ids);
+        } finally {
+            nodes.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExpiredLeaseCanBeTakenOver() {
+        List<Long> ids = dueStates(1);
+        Instant now = Instant.now();
+        assertThat(claim(ids, "node-a#2", now)).containsExactlyElementsOf(ids);
+
+        // Node A is still within its lease
+        assertThat(claim(ids, "node-b#2", now.plusSeconds(30))).isEmpty();
+        // Node A died; its lease ran out
+        assertThat(claim(ids, "node-b#3", now.plusSeconds(61))).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    public void testAdvanceUnderAnExpiredLeaseFailsOnceTheRowIsReclaimed() throws Exception {
+        List<Long> ids = dueStates(1);
+        Instant now = Instant.now();
+        assertThat(claim(ids, "node-a#4", now)).containsExactlyElementsOf(ids);
+
+        ExecutorService nodeB = Executors.newSingleThreadExecutor();
+        try {
+            // Node A's worker, as in WorkflowEngineService.fire, outlives its lease while node B takes the row over
+            assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(tx -> {
+                VisitorWorkflowState state = stateRepository.findWithVisitorById(ids.get(0)).orElseThrow();
+                try {
+                    assertThat(nodeB.submit(() -> claim(ids, "node-b#4", now.plusSeconds(61))).get())
+                            .containsExactlyElementsOf(ids);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                state.setLeaseOwner(null);
+                state.setLeaseExpiresAt(null);
+                state.setCurrentStepOrder(state.getCurrentStepOrder() + 1);
+            })).isInstanceOf(OptimisticLockingFailureException.class);
+        } finally {
+            nodeB.shutdownNow();
+        }
+
+        VisitorWorkflowState state = stateRepository.findById(ids.get(0)).orElseThrow();
+        assertThat(state.getLeaseOwner()).isEqualTo("node-b#4");
+        assertThat(state.getCurrentStepOrder()).isZero();
+    }
+
+    // One node's claim, as in WorkflowEngineService.claimAndFire, with a 60 second lease
+    private List<Long> claim(List<Long> ids, String owner, Instant now) {
+        return transactionTemplate.execute(tx -> {
+            stateRepository.claim(ids, ACTIVE, owner, now.plusSeconds(60), now);
+            return stateRepository.findIdsByLeaseOwner(ids, owner);
+        });
+    }
+
+    private List<Long> dueStates(int count) {
+        return transactionTemplate.execute(tx -> {
+            Tenant tenant = tenantRepository.findBySlug("ebenezer");
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Visitor visitor = new Visitor();
+                visitor.setTenant(tenant);
+                visitor.setFirstName("Lease");
+                visitor.setLastName("Test");
+                visitor.setPhoneNumber(String.format("+1404%07d", phoneNumbers.incrementAndGet()));
+                visitorRepository.save(visitor);
+
+                VisitorWorkflowState state = new VisitorWorkflowState();
+                state.setTenant(tenant);
+                state.setVisitor(visitor);
+                state.setWorkflow(workflowRepository.findFirstByTenantIdAndIsDefaultTrue(tenant.getId()).orElseThrow());
+                state.setStatus(WorkflowStatus.PENDING);
+                state.setNextExecutionAt(Instant.now().minusSeconds(60));
+                ids.add(stateRepository.save(state).getId());
+            }
+            return ids;
+        });
+    }
+}
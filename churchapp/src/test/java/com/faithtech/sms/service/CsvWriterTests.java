@@ -0,0 +1,23 @@
+package com.faithtech.sms.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvWriterTests {
+
+    @Test
+    public void testFormulaPrefixesAreNeutralized() {
+        assertThat(CsvWriter.text("=HYPERLINK(\"x\")")).isEqualTo("'=HYPERLINK(\"x\")");
+        assertThat(CsvWriter.text("+14045551234")).isEqualTo("'+14045551234");
+        assertThat(CsvWriter.text("\t=1+1")).isEqualTo("'\t=1+1");
+        assertThat(CsvWriter.text("\r=1+1")).isEqualTo("'\r=1+1");
+        assertThat(CsvWriter.text("Grace")).isEqualTo("Grace");
+    }
+
+    @Test
+    public void testExportedPhoneNumbersImportAgain() {
+        assertThat(PhoneNumbers.normalize(CsvWriter.text("+442071838750"))).isEqualTo("+442071838750");
+        assertThat(PhoneNumbers.normalize(CsvWriter.text("+14045551234"))).isEqualTo("+14045551234");
+    }
+}
@@ -0,0 +1,150 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Visitor;
+import com.faithtech.sms.data.entity.VisitorWorkflowState;
+import com.faithtech.sms.data.enums.MessageStatus;
+import com.faithtech.sms.data.enums.WorkflowStatus;
+import com.faithtech.sms.data.repository.MessageEventRepository;
+import com.faithtech.sms.data.repository.TenantRepository;
+import com.faithtech.sms.data.repository.VisitorRepository;
+import com.faithtech.sms.data.repository.VisitorWorkflowStateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * The public intake path end to end: form post, journal, batched insert, enrollment and the first text.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"h2pg", "it"})
+public class IntakeIngestionIntegrationTests {
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private VisitorRepository visitorRepository;
+
+    @Autowired
+    private VisitorWorkflowStateRepository stateRepository;
+
+    @Autowired
+    private MessageEventRepository messageEventRepository;
+
+    @Autowired
+    private VisitorUpserter visitorUpserter;
+
+    @Autowired
+    private WorkflowEngineService workflowEngineService;
+
+    @Autowired
+    private VisitorFeed visitorFeed;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testSubmittedFormIsEnrolledAndTexted() throws Exception {
+        mockMvc.perform(post("/connect/submit")
+                        .param("slug", "ebenezer")
+                        .param("firstName", "Intake")
+                        .param("lastName", "Test")
+                        .param("phoneNumber", "(470) 555-0210"))
+                .andExpect(redirectedUrl("/connect/welcome"));
+
+        Long tenantId = tenantRepository.findBySlug("ebenezer").getId();
+        awaitTrue(() -> visitor(tenantId, "+14705550210").isPresent());
+        Long visitorId = visitor(tenantId, "+14705550210").orElseThrow().getId();
+
+        // Step 1 has no delay, so the welcome text goes out and the state moves on to step 2
+        awaitTrue(() -> state(visitorId).map(s -> s.getStatus() == WorkflowStatus.IN_PROGRESS).orElse(false));
+        VisitorWorkflowState state = state(visitorId).orElseThrow();
+        assertThat(state.getCurrentStepOrder()).isEqualTo(2);
+        awaitTrue(() -> messageEventRepository.findAll().stream()
+                .anyMatch(e -> state.getId().equals(e.getWorkflowStateId()) && e.getStatus() == MessageStatus.QUEUED));
+    }
+
+    @Test
+    public void testJournaledSubmissionsAreReplayedOnStart() throws Exception {
+        Long tenantId = tenantRepository.findBySlug("ebenezer").getId();
+        Path file = dir.resolve("intake-journal.log");
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            journal.readPending();
+            long committed = journal.append(fields(tenantId, "Committed", "+14705550220"), seq -> { });
+            journal.checkpoint(committed);
+            journal.append(fields(tenantId, "Acknowledged", "+14705550221"), seq -> { });
+            journal.sync();
+        }
+        // The process died halfway through the next append
+        Files.writeString(file, "S\t3\t" + tenantId + "\tTorn", StandardOpenOption.APPEND);
+
+        IntakeIngestionService restarted = restartedService(file);
+        restarted.start();
+        try {
+            assertThat(visitor(tenantId, "+14705550221")).hasValueSatisfying(
+                    v -> assertThat(v.getFirstName()).isEqualTo("Acknowledged"));
+            // Checkpointed before the crash, so it was already in the database and is not replayed
+            assertThat(visitor(tenantId, "+14705550220")).isEmpty();
+            assertThat(Files.size(file)).isZero();
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    // A second instance of the service on its own journal, as after a restart
+    private IntakeIngestionService restartedService(Path file) {
+        IntakeIngestionService service = new IntakeIngestionService(visitorUpserter, workflowEngineService,
+                visitorFeed, transactionTemplate, new SimpleMeterRegistry(), 100);
+        ReflectionTestUtils.setField(service, "journalPath", file.toString());
+        ReflectionTestUtils.setField(service, "batchSize", 200);
+        ReflectionTestUtils.setField(service, "maxDelayMs", 50L);
+        return service;
+    }
+
+    private Optional<Visitor> visitor(Long tenantId, String phone) {
+        return visitorRepository.findByTenantIdAndNormalizedPhone(tenantId, phone);
+    }
+
+    private Optional<VisitorWorkflowState> state(Long visitorId) {
+        return stateRepository.findAll().stream()
+                .filter(s -> visitorId.equals(s.getVisitor().getId()))
+                .findFirst();
+    }
+
+    private static String[] fields(Long tenantId, String firstName, String phone) {
+        return new IntakeSubmission(tenantId, firstName, "Replay", phone, null).toFields();
+    }
+
+    // Persisted by the flusher and texted by the scheduler, both off the request thread
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met within 5 s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.faithtech.sms.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IntakeJournalTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testReplaysSubmissionsAfterTheLastCheckpoint() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            journal.readPending();
+            journal.append(fields("Ann"), seq -> { });
+            long second = journal.append(fields("Bob"), seq -> { });
+            journal.checkpoint(second);
+            journal.append(fields("Cy\tTab"), seq -> { });
+            journal.sync();
+        }
+
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            Map<Long, String[]> pending = journal.readPending();
+            assertThat(pending).containsOnlyKeys(3L);
+            assertThat(pending.get(3L)[1]).isEqualTo("Cy\tTab");
+            assertThat(pending.get(3L)[4]).isNull();
+            // Sequence numbers carry on after a restart
+            assertThat(journal.append(fields("Dee"), seq -> { })).isEqualTo(4L);
+        }
+    }
+
+    @Test
+    public void testCheckpointCoversEverySubmissionUpToItsSeq() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            journal.readPending();
+            journal.append(fields("Ann"), seq -> { });
+            journal.append(fields("Bob"), seq -> { });
+            journal.append(fields("Cy"), seq -> { });
+            journal.checkpoint(3);
+            journal.sync();
+        }
+
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            assertThat(journal.readPending()).isEmpty();
+        }
+    }
+
+    @Test
+    public void testDropsTornFinalRecordAndKeepsAppending() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            journal.readPending();
+            journal.append(fields("Ann"), seq -> { });
+            journal.sync();
+        }
+        // A crash halfway through the second append
+        Files.writeString(file, "S\t2\t1\tBo", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            Map<Long, String[]> pending = journal.readPending();
+            assertThat(pending).containsOnlyKeys(1L);
+            journal.append(fields("Cy"), seq -> { });
+            journal.sync();
+        }
+
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            Map<Long, String[]> pending = journal.readPending();
+            assertThat(pending).containsOnlyKeys(1L, 2L);
+            assertThat(pending.get(2L)[1]).isEqualTo("Cy");
+        }
+    }
+
+    @Test
+    public void testSkipsMalformedRecords() throws Exception {
+        Path file = dir.resolve("journal.log");
+        Files.writeString(file, "S\t1\t1\tAnn\tLee\t4045550100\t\\N\nS\tx\nC\n\nS\t2\t1\tBob\tLee\t4045550101\t\\N\n",
+                StandardCharsets.UTF_8);
+
+        try (IntakeJournal journal = new IntakeJournal(file)) {
+            assertThat(journal.readPending()).containsOnlyKeys(1L, 2L);
+        }
+    }
+
+    @Test
+    public void testEntriesWithoutEveryFieldAreRejected() {
+        assertThatThrownBy(() -> IntakeSubmission.fromFields(new String[] {"Ann", "Lee", "4045550100"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IntakeSubmission.fromFields(new String[] {"1", "Ann", "Lee", "4045550100"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(IntakeSubmission.fromFields(fields("Ann")).tenantId()).isEqualTo(1L);
+    }
+
+    private static String[] fields(String firstName) {
+        return new IntakeSubmission(1L, firstName, "Lee", "404-555-0100", null).toFields();
+    }
+}
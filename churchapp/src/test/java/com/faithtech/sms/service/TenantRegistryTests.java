@@ -0,0 +1,58 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Tenant;
+import com.faithtech.sms.data.repository.TenantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TenantRegistryTests {
+
+    private final TenantRepository tenantRepository = mock(TenantRepository.class);
+    private final TenantRegistry registry = new TenantRegistry(tenantRepository);
+
+    @BeforeEach
+    public void setup() {
+        ReflectionTestUtils.setField(registry, "missReloadIntervalMs", 60_000L);
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant(1L, "ebenezer", "+14705550100")));
+        registry.load();
+    }
+
+    @Test
+    public void testTenantCreatedOnAnotherNodeResolvesOnFirstUse() {
+        // Saved on another node: no listener ran here
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant(1L, "ebenezer", "+14705550100"),
+                tenant(51L, "grace", "+14705550199")));
+
+        assertThat(registry.findBySlug("grace")).hasValueSatisfying(t -> assertThat(t.getId()).isEqualTo(51L));
+        assertThat(registry.findByTwilioPhoneNumber("(470) 555-0199")).isPresent();
+        verify(tenantRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void testUnknownSlugsReloadAtMostOncePerInterval() {
+        assertThat(registry.findBySlug("nope-1")).isEmpty();
+        assertThat(registry.findBySlug("nope-2")).isEmpty();
+        assertThat(registry.findById(999L)).isEmpty();
+
+        // The startup load plus a single reload for the first miss
+        verify(tenantRepository, times(2)).findAll();
+    }
+
+    private static Tenant tenant(Long id, String slug, String phoneNumber) {
+        Tenant tenant = new Tenant();
+        tenant.setId(id);
+        tenant.setName(slug);
+        tenant.setSlug(slug);
+        tenant.setTwilioPhoneNumber(phoneNumber);
+        return tenant;
+    }
+}
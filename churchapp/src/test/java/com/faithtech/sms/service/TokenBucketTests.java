@@ -0,0 +1,33 @@
+package com.faithtech.sms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TokenBucketTests {
+
+    @Test
+    public void testWaitingCallersGetConsecutiveSlots() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+
+        assertThat(bucket.reserve()).isZero();
+        // One token a second: each reservation waits one slot longer than the one before it
+        long second = bucket.reserve();
+        long third = bucket.reserve();
+        assertThat(second).isCloseTo(TimeUnit.SECONDS.toNanos(1), within(TimeUnit.MILLISECONDS.toNanos(100)));
+        assertThat(third - second).isCloseTo(TimeUnit.SECONDS.toNanos(1), within(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    public void testBurstIsAvailableAtOnce() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isPositive();
+    }
+}
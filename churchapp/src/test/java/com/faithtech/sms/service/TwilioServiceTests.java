@@ -0,0 +1,30 @@
+package com.faithtech.sms.service;
+
+import com.twilio.exception.ApiConnectionException;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TwilioServiceTests {
+
+    @Test
+    public void testConnectFailuresAreRetried() {
+        assertThat(TwilioService.failedBeforeSending(
+                new ApiConnectionException("IOException during API request to Twilio", new ConnectException()))).isTrue();
+        assertThat(TwilioService.failedBeforeSending(
+                new ApiConnectionException("IOException during API request to Twilio", new UnknownHostException()))).isTrue();
+    }
+
+    @Test
+    public void testFailuresAfterTheRequestWasSentAreNotRetried() {
+        // Twilio may already have queued the message
+        assertThat(TwilioService.failedBeforeSending(
+                new ApiConnectionException("IOException during API request to Twilio", new SocketTimeoutException("Read timed out"))))
+                .isFalse();
+        assertThat(TwilioService.failedBeforeSending(new ApiConnectionException("Connection reset"))).isFalse();
+    }
+}
@@ -0,0 +1,108 @@
+package com.faithtech.sms.service;
+
+import com.faithtech.sms.data.entity.Workflow;
+import com.faithtech.sms.data.entity.WorkflowStep;
+import com.faithtech.sms.data.repository.WorkflowRepository;
+import com.faithtech.sms.data.repository.WorkflowStepRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkflowPlanCacheTests {
+
+    @InjectMocks
+    private WorkflowPlanCache cache;
+
+    @Mock
+    private WorkflowRepository workflowRepository;
+
+    @Mock
+    private WorkflowStepRepository stepRepository;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        Workflow workflow = new Workflow();
+        workflow.setId(7L);
+        when(workflowRepository.findById(7L)).thenReturn(Optional.of(workflow));
+    }
+
+    @Test
+    public void testStepsAreAddressedByStepOrder() {
+        when(stepRepository.findByWorkflowIdOrderByStepOrder(7L)).thenReturn(List.of(step(1, "Hi"), step(5, "Bye")));
+
+        WorkflowPlan plan = cache.planFor(7L);
+
+        assertThat(plan.first().order()).isEqualTo(1);
+        assertThat(plan.stepAt(1)).isSameAs(plan.first());
+        // A removed step falls through to the next one
+        assertThat(plan.stepAt(2).order()).isEqualTo(5);
+        assertThat(plan.after(plan.stepAt(5))).isNull();
+    }
+
+    @Test
+    public void testPlanLoadedAcrossAnEvictionIsNotCached() {
+        when(stepRepository.findByWorkflowIdOrderByStepOrder(7L))
+                .thenAnswer(invocation -> {
+                    // The edit commits and evicts while this load is reading the old steps
+                    cache.evict(7L);
+                    return List.of(step(1, "Old"));
+                })
+                .thenReturn(List.of(step(1, "New")));
+
+        assertThat(cache.planFor(7L).steps()).hasSize(1);
+        WorkflowPlan reloaded = cache.planFor(7L);
+
+        assertThat(reloaded.first().message().render(null, null)).isEqualTo("New");
+        assertThat(cache.planFor(7L)).isSameAs(reloaded);
+    }
+
+    @Test
+    public void testEditOnAnotherNodeIsPickedUpByTheVersionCheck() {
+        when(stepRepository.findByWorkflowIdOrderByStepOrder(7L))
+                .thenReturn(List.of(step(1, "Old")))
+                .thenReturn(List.of(step(1, "New")));
+        when(stepRepository.count()).thenReturn(1L);
+        when(stepRepository.findLatestUpdate()).thenReturn(Instant.parse("2024-01-01T00:00:00Z"));
+        cache.checkForChanges();
+        WorkflowPlan cached = cache.planFor(7L);
+
+        // Nothing moved: the plan stays
+        cache.checkForChanges();
+        assertThat(cache.planFor(7L)).isSameAs(cached);
+
+        // The step was edited on another node, so no listener ran here
+        when(stepRepository.findLatestUpdate()).thenReturn(Instant.parse("2024-01-01T00:05:00Z"));
+        cache.checkForChanges();
+
+        assertThat(cache.planFor(7L).first().message().render(null, null)).isEqualTo("New");
+    }
+
+    @Test
+    public void testMissingDefaultWorkflowIsCached() {
+        when(workflowRepository.findFirstByTenantIdAndIsDefaultTrue(3L)).thenReturn(Optional.empty());
+
+        assertThat(cache.defaultPlanFor(3L)).isEmpty();
+        assertThat(cache.defaultPlanFor(3L)).isEmpty();
+
+        verify(workflowRepository, times(1)).findFirstByTenantIdAndIsDefaultTrue(3L);
+    }
+
+    private static WorkflowStep step(int order, String message) {
+        WorkflowStep step = new WorkflowStep();
+        step.setStepOrder(order);
+        step.setMessageTemplate(message);
+        return step;
+    }
+}
@@ -1,5 +1,7 @@
 package com.techcareer.app.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -7,6 +9,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import com.techcareer.app.model.AssessmentProfile;
 import com.techcareer.app.model.User;
 import com.techcareer.app.model.UserAssessment;
 import com.techcareer.app.model.AssessmentQuestion;
@@ -35,6 +38,9 @@ public class AssessmentController {
     @Autowired
     AssessmentQuestionRepository assessmentQuestionRepository;
     
+    @Autowired
+    ObjectMapper objectMapper;
+    
     @GetMapping("/questions/{assessmentType}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<?> getAssessmentQuestions(@PathVariable String assessmentType) {
@@ -81,10 +87,18 @@ public class AssessmentController {
         assessment.setAssessmentType(assessmentType);
         assessment.setCompletedAt(LocalDateTime.now());
         
-        // Convert assessment results to JSON string
-        assessment.setResults(assessmentResults.toString());
+        // Parse the answers used for matching once, here, instead of on every recommendation
+        try {
+            assessment.setProfile(AssessmentProfile.parse(assessmentType, assessmentResults).encode());
+            assessment.setResults(objectMapper.writeValueAsString(assessmentResults));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid assessment results!"));
+        }
         
-        UserAssessment savedAssessment = userAssessmentRepository.save(assessment);
+        // Recommendations are refreshed in the background once this commits
+        userAssessmentRepository.save(assessment);
         
         return ResponseEntity.ok(new MessageResponse("Assessment submitted successfully"));
     }
@@ -11,12 +11,11 @@ import com.techcareer.app.model.*;
 import com.techcareer.app.payload.response.MessageResponse;
 import com.techcareer.app.repository.*;
 import com.techcareer.app.security.services.UserDetailsImpl;
+import com.techcareer.app.service.RecommendationBatchJob;
+import com.techcareer.app.service.RecommendationRefreshWorker;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -41,6 +40,12 @@ public class CareerRecommendationController {
     @Autowired
     CareerRecommendationRepository careerRecommendationRepository;
     
+    @Autowired
+    RecommendationRefreshWorker recommendationRefreshWorker;
+    
+    @Autowired
+    RecommendationBatchJob recommendationBatchJob;
+    
     @GetMapping("/paths")
     public ResponseEntity<?> getAllCareerPaths() {
         List<CareerPath> careerPaths = careerPathRepository.findAll();
@@ -111,116 +116,38 @@ public class CareerRecommendationController {
             return ResponseEntity.notFound().build();
         }
         
-        User user = userOptional.get();
-        
-        // Get user skills
-        List<UserSkill> userSkills = userSkillRepository.findByUser(user);
-        List<UserSkill> strengths = userSkillRepository.findByUserAndIsStrength(user, true);
-        List<UserSkill> interests = userSkillRepository.findByUserAndIsInterest(user, true);
-        
-        // Get all job roles
-        List<JobRole> allJobRoles = jobRoleRepository.findAll();
-        
-        // Clear previous recommendations
-        List<CareerRecommendation> existingRecommendations = 
-            careerRecommendationRepository.findByUser(user);
-        careerRecommendationRepository.deleteAll(existingRecommendations);
-        
-        // Generate new recommendations
-        List<CareerRecommendation> newRecommendations = new ArrayList<>();
-        
-        for (JobRole role : allJobRoles) {
-            // Simple matching algorithm - can be enhanced with more sophisticated logic
-            int matchScore = calculateMatchScore(role, userSkills, strengths, interests);
-            
-            if (matchScore > 30) { // Only recommend if match is above threshold
-                CareerRecommendation recommendation = new CareerRecommendation();
-                recommendation.setUser(user);
-                recommendation.setJobRole(role);
-                recommendation.setMatchPercentage(matchScore);
-                recommendation.setReasoning(generateReasoningText(role, userSkills, strengths, interests, matchScore));
-                
-                newRecommendations.add(recommendation);
-            }
+        Long userId = userOptional.get().getId();
+        if (!userAssessmentRepository.existsByUserId(userId) && !userSkillRepository.existsByUserId(userId)) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Complete an assessment or add your skills first!"));
         }
         
-        // Save top recommendations (limit to 10)
-        List<CareerRecommendation> topRecommendations = newRecommendations.stream()
-            .sorted(Comparator.comparing(CareerRecommendation::getMatchPercentage).reversed())
-            .limit(10)
-            .collect(Collectors.toList());
-        
-        careerRecommendationRepository.saveAll(topRecommendations);
+        // Recomputed off the request thread; GET /recommendations serves the result once stored. Users with
+        // skills but no assessments are scored on their skills alone.
+        recommendationRefreshWorker.requestRefresh(userId);
         
-        return ResponseEntity.ok(new MessageResponse("Career recommendations generated successfully"));
+        return ResponseEntity.accepted().body(new MessageResponse("Career recommendations are being refreshed"));
     }
     
-    // Simple algorithm to calculate match score - can be enhanced with more sophisticated logic
-    private int calculateMatchScore(JobRole role, List<UserSkill> userSkills, 
-                                   List<UserSkill> strengths, List<UserSkill> interests) {
-        // This is a simplified algorithm - in a real application, this would be more sophisticated
-        int baseScore = 50; // Start with a base score
-        
-        // Check if user has required skills
-        String[] requiredSkills = role.getRequiredSkills().toLowerCase().split(",");
-        for (String requiredSkill : requiredSkills) {
-            for (UserSkill userSkill : userSkills) {
-                if (userSkill.getSkill().getName().toLowerCase().contains(requiredSkill.trim())) {
-                    baseScore += 5;
-                    
-                    // Bonus if it's a strength
-                    if (userSkill.getIsStrength()) {
-                        baseScore += 10;
-                    }
-                    
-                    // Bonus if it's an interest
-                    if (userSkill.getIsInterest()) {
-                        baseScore += 8;
-                    }
-                }
-            }
+    @PostMapping("/recommendations/recompute-all")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> recomputeAllRecommendations(@RequestParam(defaultValue = "false") boolean restart) {
+        if (!recommendationBatchJob.start(restart)) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Recommendations are already being recomputed!"));
         }
-        
-        // Cap the score at 100
-        return Math.min(baseScore, 100);
+        return ResponseEntity.accepted().body(new MessageResponse("Recomputing recommendations for all users"));
     }
     
-    private String generateReasoningText(JobRole role, List<UserSkill> userSkills, 
-                                        List<UserSkill> strengths, List<UserSkill> interests, int matchScore) {
-        StringBuilder reasoning = new StringBuilder();
-        
-        reasoning.append("Based on your profile, you have a ").append(matchScore).append("% match with this role. ");
-        
-        // Add reasoning about skills
-        reasoning.append("You have skills that align with this role's requirements, ");
-        
-        // Add reasoning about strengths if applicable
-        if (!strengths.isEmpty()) {
-            reasoning.append("and your strengths in ");
-            for (int i = 0; i < Math.min(strengths.size(), 3); i++) {
-                reasoning.append(strengths.get(i).getSkill().getName());
-                if (i < Math.min(strengths.size(), 3) - 1) {
-                    reasoning.append(", ");
-                }
-            }
-            reasoning.append(" are particularly valuable for this position. ");
-        }
-        
-        // Add reasoning about interests if applicable
-        if (!interests.isEmpty()) {
-            reasoning.append("Your interest in ");
-            for (int i = 0; i < Math.min(interests.size(), 3); i++) {
-                reasoning.append(interests.get(i).getSkill().getName());
-                if (i < Math.min(interests.size(), 3) - 1) {
-                    reasoning.append(", ");
-                }
-            }
-            reasoning.append(" aligns well with this career path. ");
+    @GetMapping("/recommendations/recompute-all")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRecomputationProgress() {
+        Optional<RecommendationJobCheckpoint> checkpoint = recommendationBatchJob.getCheckpoint();
+        if (!checkpoint.isPresent()) {
+            return ResponseEntity.notFound().build();
         }
-        
-        // Add information about the role
-        reasoning.append("This role typically involves ").append(role.getDescription());
-        
-        return reasoning.toString();
+        return ResponseEntity.ok(checkpoint.get());
     }
 }
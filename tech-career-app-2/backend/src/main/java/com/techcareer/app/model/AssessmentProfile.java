@@ -0,0 +1,405 @@
+package com.techcareer.app.model;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Typed, immutable view of the assessment answers used for career matching.
+ *
+ * Each submission is parsed once into a profile holding only its own section (see {@link #parse}) and stored on the
+ * {@link UserAssessment} in the compact form produced by {@link #encode()}. A user's full profile is the merge of the
+ * latest submission of every assessment type.
+ */
+public final class AssessmentProfile {
+
+    public static final String INTEREST = "INTEREST";
+    public static final String WORK_STYLE = "WORK_STYLE";
+    public static final String TECH_ACCESS = "TECH_ACCESS";
+    public static final String JOB_ROLE = "JOB_ROLE";
+
+    public static final AssessmentProfile EMPTY = new AssessmentProfile(null, null, null, null);
+
+    private static final byte FORMAT_VERSION = 1;
+
+    // Bounds that keep every parsed answer encodable: writeUTF takes at most 65535 bytes (up to 3 per char)
+    // and list lengths are written as unsigned shorts
+    static final int MAX_ANSWER_LENGTH = 1000;
+    static final int MAX_ANSWERS = 1000;
+
+    // Constants are stored by ordinal: only ever append
+    public enum ComputerAccess {
+        NONE(20), LIMITED(50), SHARED(80), DEDICATED(100);
+
+        public final int score;
+
+        ComputerAccess(int score) {
+            this.score = score;
+        }
+
+        static ComputerAccess of(String value) {
+            switch (value) {
+                case "dedicated": return DEDICATED;
+                case "shared": return SHARED;
+                case "limited": return LIMITED;
+                default: return NONE;
+            }
+        }
+    }
+
+    public enum InternetAccess {
+        NONE(30), PUBLIC(50), MOBILE(70), MODERATE(100), HIGH_SPEED(100);
+
+        public final int score;
+
+        InternetAccess(int score) {
+            this.score = score;
+        }
+
+        static InternetAccess of(String value) {
+            switch (value) {
+                case "high-speed": return HIGH_SPEED;
+                case "moderate": return MODERATE;
+                case "mobile": return MOBILE;
+                case "public": return PUBLIC;
+                default: return NONE;
+            }
+        }
+    }
+
+    public enum TimeAvailability {
+        UNDER_FIVE(30), FIVE_TO_TEN(50), TEN_TO_TWENTY(70), TWENTY_TO_THIRTY(90), THIRTY_PLUS(100);
+
+        public final int score;
+
+        TimeAvailability(int score) {
+            this.score = score;
+        }
+
+        static TimeAvailability of(String value) {
+            switch (value) {
+                case "30+": return THIRTY_PLUS;
+                case "20-30": return TWENTY_TO_THIRTY;
+                case "10-20": return TEN_TO_TWENTY;
+                case "5-10": return FIVE_TO_TEN;
+                default: return UNDER_FIVE;
+            }
+        }
+    }
+
+    public static final class Interests {
+        // Lower-cased
+        private final List<String> techInterests;
+        public final String problemSolving;
+
+        Interests(String[] techInterests, String problemSolving) {
+            this.techInterests = unmodifiable(techInterests);
+            this.problemSolving = problemSolving;
+        }
+
+        /** @return unmodifiable */
+        public List<String> getTechInterests() {
+            return techInterests;
+        }
+    }
+
+    public static final class WorkStyle {
+        public final String workEnvironment;
+        public final String teamSize;
+        // Trimmed and lower-cased
+        private final List<String> workCulture;
+
+        WorkStyle(String workEnvironment, String teamSize, String[] workCulture) {
+            this.workEnvironment = workEnvironment;
+            this.teamSize = teamSize;
+            this.workCulture = unmodifiable(workCulture);
+        }
+
+        /** @return unmodifiable */
+        public List<String> getWorkCulture() {
+            return workCulture;
+        }
+
+        public boolean flexibleEnvironment() {
+            return workEnvironment.equals("flexible");
+        }
+
+        public boolean flexibleTeamSize() {
+            return teamSize.equals("flexible");
+        }
+    }
+
+    public static final class TechAccess {
+        public final ComputerAccess computer;
+        public final InternetAccess internet;
+        // 1-10
+        public final int internetSpeed;
+        public final TimeAvailability time;
+
+        TechAccess(ComputerAccess computer, InternetAccess internet, int internetSpeed, TimeAvailability time) {
+            this.computer = computer;
+            this.internet = internet;
+            this.internetSpeed = internetSpeed;
+            this.time = time;
+        }
+    }
+
+    public static final class RolePreferences {
+        private final List<String> selectedRoles;
+        // Interest level 1-5, parallel to selectedRoles
+        private final int[] interestLevels;
+
+        RolePreferences(String[] selectedRoles, int[] interestLevels) {
+            this.selectedRoles = unmodifiable(selectedRoles);
+            this.interestLevels = interestLevels;
+        }
+
+        /** @return unmodifiable */
+        public List<String> getSelectedRoles() {
+            return selectedRoles;
+        }
+
+        /** @return the interest level 1-5 given for {@code getSelectedRoles().get(index)} */
+        public int getInterestLevel(int index) {
+            return interestLevels[index];
+        }
+    }
+
+    private final Interests interests;
+    private final WorkStyle workStyle;
+    private final TechAccess techAccess;
+    private final RolePreferences rolePreferences;
+
+    private AssessmentProfile(Interests interests, WorkStyle workStyle, TechAccess techAccess,
+                              RolePreferences rolePreferences) {
+        this.interests = interests;
+        this.workStyle = workStyle;
+        this.techAccess = techAccess;
+        this.rolePreferences = rolePreferences;
+    }
+
+    /** @return null if the user has not taken the interest assessment */
+    public Interests getInterests() {
+        return interests;
+    }
+
+    /** @return null if the user has not taken the work style assessment */
+    public WorkStyle getWorkStyle() {
+        return workStyle;
+    }
+
+    /** @return null if the user has not taken the technology access assessment */
+    public TechAccess getTechAccess() {
+        return techAccess;
+    }
+
+    /** @return null if the user has not taken the job role assessment */
+    public RolePreferences getRolePreferences() {
+        return rolePreferences;
+    }
+
+    public boolean isEmpty() {
+        return interests == null && workStyle == null && techAccess == null && rolePreferences == null;
+    }
+
+    /**
+     * Sections present in {@code newer} replace this profile's.
+     */
+    public AssessmentProfile merge(AssessmentProfile newer) {
+        return new AssessmentProfile(
+                newer.interests != null ? newer.interests : interests,
+                newer.workStyle != null ? newer.workStyle : workStyle,
+                newer.techAccess != null ? newer.techAccess : techAccess,
+                newer.rolePreferences != null ? newer.rolePreferences : rolePreferences);
+    }
+
+    /**
+     * Parses the raw answers of one submitted assessment. Types that carry nothing used for matching give
+     * {@link #EMPTY}.
+     *
+     * @throws IllegalArgumentException if an answer is out of range or too long to store
+     */
+    public static AssessmentProfile parse(String assessmentType, Map<String, Object> responses) {
+        switch (assessmentType) {
+            case INTEREST: {
+                List<?> techInterests = list(responses, "techInterests");
+                String[] lowerCased = new String[techInterests.size()];
+                for (int i = 0; i < lowerCased.length; i++) {
+                    lowerCased[i] = answer("techInterests", techInterests.get(i)).toLowerCase(Locale.ROOT);
+                }
+                return new AssessmentProfile(new Interests(lowerCased, string(responses, "problemSolving", "")),
+                        null, null, null);
+            }
+            case WORK_STYLE: {
+                List<?> workCulture = list(responses, "workCulture");
+                String[] normalized = new String[workCulture.size()];
+                for (int i = 0; i < normalized.length; i++) {
+                    normalized[i] = answer("workCulture", workCulture.get(i)).trim().toLowerCase(Locale.ROOT);
+                }
+                return new AssessmentProfile(null, new WorkStyle(string(responses, "workEnvironment", ""),
+                        string(responses, "teamSize", ""), normalized), null, null);
+            }
+            case TECH_ACCESS: {
+                Object speed = responses.get("internetSpeed");
+                int internetSpeed = inRange("internetSpeed", speed instanceof Number ? ((Number) speed).intValue()
+                        : speed != null ? Integer.parseInt(speed.toString()) : 5, 1, 10);
+                return new AssessmentProfile(null, null, new TechAccess(
+                        ComputerAccess.of(string(responses, "computerAccess", "")),
+                        InternetAccess.of(string(responses, "internetAccess", "")),
+                        internetSpeed,
+                        TimeAvailability.of(string(responses, "timeAvailability", ""))), null);
+            }
+            case JOB_ROLE: {
+                List<?> selected = list(responses, "selectedRoles");
+                Object preferences = responses.get("rolePreferences");
+                Map<?, ?> levels = preferences instanceof Map ? (Map<?, ?>) preferences : Collections.emptyMap();
+                String[] roles = new String[selected.size()];
+                int[] interestLevels = new int[roles.length];
+                for (int i = 0; i < roles.length; i++) {
+                    roles[i] = answer("selectedRoles", selected.get(i));
+                    Object level = levels.get(roles[i]);
+                    interestLevels[i] = inRange("rolePreferences",
+                            level == null ? 3 : Integer.parseInt(level.toString()), 1, 5);
+                }
+                return new AssessmentProfile(null, null, null, new RolePreferences(roles, interestLevels));
+            }
+            default:
+                return EMPTY;
+        }
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte((interests != null ? 1 : 0) | (workStyle != null ? 2 : 0)
+                    | (techAccess != null ? 4 : 0) | (rolePreferences != null ? 8 : 0));
+            if (interests != null) {
+                writeStrings(out, interests.techInterests);
+                out.writeUTF(interests.problemSolving);
+            }
+            if (workStyle != null) {
+                out.writeUTF(workStyle.workEnvironment);
+                out.writeUTF(workStyle.teamSize);
+                writeStrings(out, workStyle.workCulture);
+            }
+            if (techAccess != null) {
+                out.writeByte(techAccess.computer.ordinal());
+                out.writeByte(techAccess.internet.ordinal());
+                out.writeByte(techAccess.internetSpeed);
+                out.writeByte(techAccess.time.ordinal());
+            }
+            if (rolePreferences != null) {
+                writeStrings(out, rolePreferences.selectedRoles);
+                for (int level : rolePreferences.interestLevels) {
+                    out.writeByte(level);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code encoded} is truncated or holds a value no profile could have
+     */
+    public static AssessmentProfile decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported assessment profile version " + version);
+            }
+            int sections = in.readByte();
+            Interests interests = null;
+            WorkStyle workStyle = null;
+            TechAccess techAccess = null;
+            RolePreferences rolePreferences = null;
+            if ((sections & 1) != 0) {
+                interests = new Interests(readStrings(in), in.readUTF());
+            }
+            if ((sections & 2) != 0) {
+                workStyle = new WorkStyle(in.readUTF(), in.readUTF(), readStrings(in));
+            }
+            if ((sections & 4) != 0) {
+                techAccess = new TechAccess(constant(ComputerAccess.values(), in.readByte()),
+                        constant(InternetAccess.values(), in.readByte()),
+                        inRange("internetSpeed", in.readByte(), 1, 10),
+                        constant(TimeAvailability.values(), in.readByte()));
+            }
+            if ((sections & 8) != 0) {
+                String[] roles = readStrings(in);
+                int[] levels = new int[roles.length];
+                for (int i = 0; i < levels.length; i++) {
+                    levels[i] = inRange("rolePreferences", in.readByte(), 1, 5);
+                }
+                rolePreferences = new RolePreferences(roles, levels);
+            }
+            return new AssessmentProfile(interests, workStyle, techAccess, rolePreferences);
+        } catch (EOFException | UTFDataFormatException e) {
+            throw new IllegalArgumentException("Truncated or malformed assessment profile", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Stored ordinals come from the database; a damaged or newer row must not index past the constants
+    private static <E extends Enum<E>> E constant(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown " + values[0].getDeclaringClass().getSimpleName()
+                    + " ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    // The arrays are built here and never handed out, so a read-only view is enough
+    private static List<String> unmodifiable(String[] values) {
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    private static List<?> list(Map<String, Object> responses, String key) {
+        Object value = responses.get(key);
+        if (!(value instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<?> list = (List<?>) value;
+        if (list.size() > MAX_ANSWERS) {
+            throw new IllegalArgumentException("Too many answers for " + key);
+        }
+        return list;
+    }
+
+    private static String string(Map<String, Object> responses, String key, String defaultValue) {
+        Object value = responses.get(key);
+        return value == null ? defaultValue : answer(key, value);
+    }
+
+    private static String answer(String key, Object value) {
+        String answer = String.valueOf(value);
+        if (answer.length() > MAX_ANSWER_LENGTH) {
+            throw new IllegalArgumentException("Answer for " + key + " is too long");
+        }
+        return answer;
+    }
+
+    private static int inRange(String key, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(key + " must be between " + min + " and " + max);
+        }
+        return value;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeShort(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] values = new String[in.readUnsignedShort()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+}
@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "career_paths")
+@EntityListeners(CatalogChangedEvent.Listener.class)
 public class CareerPath {
     
     @Id
@@ -39,6 +40,31 @@ public class CareerPath {
     @Column(name = "entry_level_friendly")
     private Boolean entryLevelFriendly = false;
     
+    // Matched against assessments by the recommendation scorer; comma separated where several values apply
+    @Column
+    private String keywords;
+    
+    @Column(name = "work_culture")
+    private String workCulture;
+    
+    @Column(name = "typical_work_environment", length = 50)
+    private String typicalWorkEnvironment; // remote, office, hybrid
+    
+    @Column(name = "typical_team_size", length = 50)
+    private String typicalTeamSize; // small, medium, large
+    
+    @Column(name = "required_problem_solving_approach")
+    private String requiredProblemSolvingApproach;
+    
+    @Column(name = "minimum_computer_requirements", length = 50)
+    private String minimumComputerRequirements; // standard, high
+    
+    @Column(name = "minimum_internet_requirements", length = 50)
+    private String minimumInternetRequirements; // moderate, high-speed
+    
+    @Column(name = "recommended_time_commitment", length = 50)
+    private String recommendedTimeCommitment; // part-time, full-time
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "career_recommendations")
+@Table(name = "career_recommendations", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "job_role_id"}))
 public class CareerRecommendation {
     
     @Id
@@ -0,0 +1,46 @@
+package com.techcareer.app.model;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Published when a {@link CareerPath} or {@link JobRole} is saved or removed, so anything derived from the catalog
+ * can be rebuilt once the change commits.
+ */
+public class CatalogChangedEvent {
+
+    private final Object entity;
+
+    public CatalogChangedEvent(Object entity) {
+        this.entity = entity;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    /**
+     * Publishes a {@link CatalogChangedEvent} for every career path or job role written.
+     */
+    public static class Listener {
+
+        // Looked up per event: Hibernate creates this listener while the entity manager factory is still being built
+        @Autowired
+        private ObjectProvider<ApplicationEventPublisher> publisher;
+
+        @PostPersist
+        @PostUpdate
+        @PostRemove
+        public void catalogChanged(Object entity) {
+            ApplicationEventPublisher target = publisher == null ? null : publisher.getIfAvailable();
+            if (target != null) {
+                target.publishEvent(new CatalogChangedEvent(entity));
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "job_roles")
+@EntityListeners(CatalogChangedEvent.Listener.class)
 public class JobRole {
     
     @Id
@@ -0,0 +1,48 @@
+package com.techcareer.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "recommendation_job_checkpoints")
+public class RecommendationJobCheckpoint {
+    
+    @Id
+    @Column(name = "job_name", length = 50)
+    private String jobName;
+    
+    // Users are processed in id order; everyone up to and including this id is done
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+    
+    @Column(name = "processed_users", nullable = false)
+    private Long processedUsers;
+    
+    // Users skipped because they could not be scored; they keep their previous rows
+    @Column(name = "failed_users", nullable = false)
+    private Long failedUsers;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Null while the run is unfinished and can be resumed
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    // Node running the job; its claim lapses at leaseUntil unless renewed
+    @Column(name = "owner", length = 100)
+    private String owner;
+    
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,34 @@
+package com.techcareer.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "recommendation_refresh_markers")
+public class RecommendationRefreshMarker {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    // RecommendationScores flags changed since the user's recommendations were last stored
+    @Column(nullable = false)
+    private Integer components;
+    
+    // Bumped by every change, so a refresh only clears the marker it started from
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(nullable = false)
+    private Integer attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+}
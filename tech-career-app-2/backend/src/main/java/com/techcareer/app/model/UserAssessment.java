@@ -1,18 +1,21 @@
 package com.techcareer.app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.techcareer.app.service.RecommendationRefreshWorker;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
-import org.hibernate.annotations.Type;
+import org.hibernate.annotations.ColumnTransformer;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "user_assessments")
+@EntityListeners(RecommendationRefreshWorker.InputListener.class)
 public class UserAssessment {
     
     @Id
@@ -29,10 +32,15 @@ public class UserAssessment {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
     
-    @Type(type = "json")
+    @ColumnTransformer(write = "?::json")
     @Column(columnDefinition = "json")
     private String results;
     
+    // AssessmentProfile.encode() of the results, parsed once on submission
+    @JsonIgnore
+    @Column(name = "profile")
+    private byte[] profile;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -1,5 +1,6 @@
 package com.techcareer.app.model;
 
+import com.techcareer.app.service.RecommendationRefreshWorker;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "user_skills")
+@EntityListeners(RecommendationRefreshWorker.InputListener.class)
 public class UserSkill {
     
     @Id
@@ -2,8 +2,10 @@ package com.techcareer.app.repository;
 
 import com.techcareer.app.model.CareerPath;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +14,8 @@ public interface CareerPathRepository extends JpaRepository<CareerPath, Long> {
     Optional<CareerPath> findByName(String name);
     List<CareerPath> findByEntryLevelFriendly(Boolean entryLevelFriendly);
     List<CareerPath> findByMarketDemand(String marketDemand);
+
+    // With count(), tells a node whether the catalog changed since it built its recommendation snapshot
+    @Query("select max(p.updatedAt) from CareerPath p")
+    LocalDateTime findLatestUpdate();
 }
@@ -2,9 +2,12 @@ package com.techcareer.app.repository;
 
 import com.techcareer.app.model.JobRole;
 import com.techcareer.app.model.CareerPath;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +16,13 @@ public interface JobRoleRepository extends JpaRepository<JobRole, Long> {
     List<JobRole> findByEntryLevelFriendly(Boolean entryLevelFriendly);
     List<JobRole> findByMarketDemand(String marketDemand);
     List<JobRole> findByTitleContainingIgnoreCase(String title);
+
+    // All roles with their path in one query, for building the recommendation snapshot
+    @EntityGraph(attributePaths = "careerPath")
+    @Query("select r from JobRole r")
+    List<JobRole> findAllForRecommendations();
+
+    // With count(), tells a node whether the catalog changed since it built its recommendation snapshot
+    @Query("select max(r.updatedAt) from JobRole r")
+    LocalDateTime findLatestUpdate();
 }
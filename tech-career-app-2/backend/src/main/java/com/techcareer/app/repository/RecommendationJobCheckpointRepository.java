@@ -0,0 +1,39 @@
+package com.techcareer.app.repository;
+
+import com.techcareer.app.model.RecommendationJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RecommendationJobCheckpointRepository extends JpaRepository<RecommendationJobCheckpoint, String> {
+
+    // Claims the job unless another node's lease is still live; creates the row on the job's first run
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO recommendation_job_checkpoints (job_name, last_user_id, processed_users, failed_users, "
+            + "owner, lease_until) VALUES (:jobName, 0, 0, 0, :owner, :leaseUntil) ON CONFLICT (job_name) DO UPDATE SET "
+            + "owner = excluded.owner, lease_until = excluded.lease_until "
+            + "WHERE recommendation_job_checkpoints.owner IS NULL OR recommendation_job_checkpoints.lease_until < :now",
+            nativeQuery = true)
+    int acquire(@Param("jobName") String jobName, @Param("owner") String owner,
+                @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update RecommendationJobCheckpoint c set c.leaseUntil = :leaseUntil "
+            + "where c.jobName = :jobName and c.owner = :owner")
+    int renew(@Param("jobName") String jobName, @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update RecommendationJobCheckpoint c set c.owner = null, c.leaseUntil = null "
+            + "where c.jobName = :jobName and c.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("owner") String owner);
+}
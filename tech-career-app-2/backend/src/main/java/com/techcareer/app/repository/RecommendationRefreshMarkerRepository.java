@@ -0,0 +1,42 @@
+package com.techcareer.app.repository;
+
+import com.techcareer.app.model.RecommendationRefreshMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RecommendationRefreshMarkerRepository extends JpaRepository<RecommendationRefreshMarker, Long> {
+
+    // Repeated changes merge into the user's one row; called after the change has committed
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT INTO recommendation_refresh_markers (user_id, components, version, attempts, next_attempt_at) "
+            + "VALUES (:userId, :components, 1, 0, :nextAttemptAt) ON CONFLICT (user_id) DO UPDATE SET "
+            + "components = recommendation_refresh_markers.components | excluded.components, "
+            + "version = recommendation_refresh_markers.version + 1, attempts = 0, "
+            + "next_attempt_at = excluded.next_attempt_at", nativeQuery = true)
+    void mark(@Param("userId") Long userId, @Param("components") int components,
+              @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    // Leaves the marker in place if the user changed again while the refresh ran
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("delete from RecommendationRefreshMarker m where m.userId = :userId and m.version = :version")
+    int clear(@Param("userId") Long userId, @Param("version") Long version);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("update RecommendationRefreshMarker m set m.attempts = m.attempts + 1, m.nextAttemptAt = :nextAttemptAt "
+            + "where m.userId = :userId")
+    int deferRetry(@Param("userId") Long userId, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    List<RecommendationRefreshMarker> findTop500ByNextAttemptAtLessThanEqualOrderByNextAttemptAt(LocalDateTime time);
+}
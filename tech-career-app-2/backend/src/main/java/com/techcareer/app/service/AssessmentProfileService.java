@@ -0,0 +1,112 @@
+package com.techcareer.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techcareer.app.model.AssessmentProfile;
+import com.techcareer.app.model.UserAssessment;
+import com.techcareer.app.repository.UserAssessmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Per-user cache of merged {@link AssessmentProfile}s.
+ *
+ * Entries are built from the profiles stored with each assessment and evicted when the user submits another one.
+ * The least recently used users are dropped beyond {@code recommendation.profile-cache.max-users}.
+ */
+@Service
+public class AssessmentProfileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssessmentProfileService.class);
+
+    private static final ObjectMapper RESULTS_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private UserAssessmentRepository userAssessmentRepository;
+
+    @Value("${recommendation.profile-cache.max-users:10000}")
+    private int maxUsers;
+
+    private final Map<Long, AssessmentProfile> profiles = Collections.synchronizedMap(
+            new LinkedHashMap<Long, AssessmentProfile>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, AssessmentProfile> eldest) {
+                    return size() > maxUsers;
+                }
+            });
+
+    /**
+     * @return the user's profile, or empty if the user has not completed any assessment
+     */
+    public Optional<AssessmentProfile> forUser(Long userId) {
+        AssessmentProfile profile = profiles.get(userId);
+        if (profile == null) {
+            profile = load(userId);
+            if (profile == null) {
+                return Optional.empty();
+            }
+            profiles.put(userId, profile);
+        }
+        return Optional.of(profile);
+    }
+
+    public void evict(Long userId) {
+        profiles.remove(userId);
+    }
+
+    private AssessmentProfile load(Long userId) {
+        return merge(userAssessmentRepository.findByUserId(userId));
+    }
+
+    /**
+     * Merges one user's assessments, the latest submission of each type winning.
+     *
+     * @return null if there are no assessments
+     */
+    static AssessmentProfile merge(List<UserAssessment> userAssessments) {
+        if (userAssessments.isEmpty()) {
+            return null;
+        }
+        List<UserAssessment> assessments = new ArrayList<>(userAssessments);
+        // Oldest first, so later submissions of the same type win the merge
+        assessments.sort(Comparator.comparing(UserAssessment::getCompletedAt,
+                Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())));
+        AssessmentProfile profile = AssessmentProfile.EMPTY;
+        for (UserAssessment assessment : assessments) {
+            profile = profile.merge(profileOf(assessment));
+        }
+        return profile;
+    }
+
+    private static AssessmentProfile profileOf(UserAssessment assessment) {
+        if (assessment.getProfile() != null) {
+            try {
+                return AssessmentProfile.decode(assessment.getProfile());
+            } catch (IllegalArgumentException e) {
+                if (assessment.getResults() == null) {
+                    throw e;
+                }
+                // Damaged on disk; the raw answers are still there
+                logger.warn("Re-parsing {} assessment {} with an unreadable profile: {}",
+                        assessment.getAssessmentType(), assessment.getId(), e.getMessage());
+            }
+        }
+        // Submitted before profiles were stored, or the stored profile was unreadable
+        try {
+            Map<String, Object> results = RESULTS_MAPPER.readValue(assessment.getResults(),
+                    new TypeReference<Map<String, Object>>() {});
+            return AssessmentProfile.parse(assessment.getAssessmentType(), results);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.warn("Ignoring unreadable {} assessment {}: {}", assessment.getAssessmentType(),
+                    assessment.getId(), e.getMessage());
+            return AssessmentProfile.EMPTY;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.techcareer.app.service;
+
+import com.techcareer.app.model.*;
+import com.techcareer.app.repository.RecommendationJobCheckpointRepository;
+import com.techcareer.app.repository.UserAssessmentRepository;
+import com.techcareer.app.repository.UserSkillRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes the stored recommendations of every user, e.g. after a change to the scoring weights.
+ *
+ * Users are read in id order in chunks of {@code recommendation.batch.chunk-size} (keyset pagination), together
+ * with their assessments and skills. Each chunk is scored in parallel against one catalog snapshot shared by the
+ * whole run. It is then written in a single transaction: a JDBC batch upsert, a batch delete of the rows no
+ * longer recommended, and the checkpoint. An interrupted run resumes after the last committed chunk. A user with
+ * neither assessments nor skills loses their stored rows. A user that cannot be scored is logged, counted in the
+ * checkpoint and keeps their stored rows.
+ *
+ * A user whose inputs or rows changed after the chunk was read, or who still has a {@link RecommendationRefreshMarker},
+ * is left to {@link RecommendationRefreshWorker}: its rows are fresher than the chunk's, or about to be.
+ *
+ * Only one node runs the job at a time. The node holds a lease on the checkpoint row, renewed with every chunk; a
+ * node that finds its lease taken over stops without writing. A lease left by a node that died expires after
+ * {@code recommendation.batch.lease-seconds}, and another node can then resume the run.
+ */
+@Service
+public class RecommendationBatchJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationBatchJob.class);
+
+    public static final String JOB_NAME = "recompute-recommendations";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO career_recommendations (user_id, job_role_id, match_percentage, reasoning, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_id, job_role_id) DO UPDATE SET match_percentage = EXCLUDED.match_percentage, "
+            + "reasoning = EXCLUDED.reasoning, updated_at = EXCLUDED.updated_at";
+
+    // Rows of a scored user for roles no longer recommended
+    private static final String DELETE_STALE_SQL =
+            "DELETE FROM career_recommendations WHERE user_id = ? AND job_role_id <> ALL(?)";
+
+    // Users of a chunk changed since it was read: a different number of inputs (an insert or delete), an assessment
+    // or skill saved since, a refresh still pending, or rows the refresh worker has stored since
+    private static final String CHANGED_SINCE_SQL =
+            "SELECT seen.user_id FROM unnest(?, ?) AS seen(user_id, inputs) "
+            + "WHERE seen.inputs <> (SELECT COUNT(*) FROM user_assessments a WHERE a.user_id = seen.user_id) "
+            + "+ (SELECT COUNT(*) FROM user_skills s WHERE s.user_id = seen.user_id) "
+            + "OR EXISTS (SELECT 1 FROM user_assessments a WHERE a.user_id = seen.user_id AND a.updated_at > ?) "
+            + "OR EXISTS (SELECT 1 FROM user_skills s WHERE s.user_id = seen.user_id AND s.created_at > ?) "
+            + "OR EXISTS (SELECT 1 FROM recommendation_refresh_markers m WHERE m.user_id = seen.user_id) "
+            + "OR EXISTS (SELECT 1 FROM career_recommendations r WHERE r.user_id = seen.user_id AND r.updated_at > ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecommendationIndex recommendationIndex;
+
+    @Autowired
+    private CareerRecommendationService careerRecommendationService;
+
+    @Autowired
+    private UserAssessmentRepository userAssessmentRepository;
+
+    @Autowired
+    private UserSkillRepository userSkillRepository;
+
+    @Autowired
+    private RecommendationJobCheckpointRepository checkpointRepository;
+
+    @Value("${recommendation.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    // 0 uses every available processor
+    @Value("${recommendation.batch.parallelism:0}")
+    private int parallelism;
+
+    @Value("${recommendation.worker.max-recommendations:10}")
+    private int maxRecommendations;
+
+    @Value("${recommendation.batch.lease-seconds:300}")
+    private long leaseSeconds;
+
+    // Identifies this node in the checkpoint's lease
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Starts the job on a background thread, resuming an unfinished run unless {@code restart} is set.
+     *
+     * @return false if the job is already running, on this node or another
+     */
+    public boolean start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (checkpointRepository.acquire(JOB_NAME, owner, now.plusSeconds(leaseSeconds), now) == 0) {
+                running.set(false);
+                return false;
+            }
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                run(restart);
+            } catch (RuntimeException e) {
+                logger.error("Recommendation recomputation failed: {}", e.getMessage(), e);
+            } finally {
+                release();
+                running.set(false);
+            }
+        }, JOB_NAME);
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<RecommendationJobCheckpoint> getCheckpoint() {
+        return checkpointRepository.findById(JOB_NAME);
+    }
+
+    private void run(boolean restart) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        RecommendationJobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+        // Never started if the row was only just created to hold the lease
+        if (checkpoint == null || restart || checkpoint.getCompletedAt() != null || checkpoint.getStartedAt() == null) {
+            LocalDateTime now = LocalDateTime.now();
+            RecommendationJobCheckpoint fresh =
+                    new RecommendationJobCheckpoint(JOB_NAME, 0L, 0L, 0L, now, now, null, null, null);
+            checkpoint = transaction.execute(status -> saveLeased(fresh));
+        } else {
+            logger.info("Resuming recommendation recomputation after user {}", checkpoint.getLastUserId());
+        }
+
+        RecommendationSnapshot catalog = recommendationIndex.snapshot();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        long started = System.currentTimeMillis();
+        try {
+            while (true) {
+                List<Long> userIds = jdbcTemplate.queryForList(
+                        "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?", Long.class,
+                        checkpoint.getLastUserId(), chunkSize);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                // Taken before the inputs are loaded, so anything saved while the chunk is scored counts as newer
+                LocalDateTime readAt = LocalDateTime.now();
+                AtomicLong failures = new AtomicLong();
+                Map<Long, Integer> inputs = new ConcurrentHashMap<>();
+                Map<Long, List<CareerRecommendationService.RankedRole>> results =
+                        score(pool, catalog, userIds, failures, inputs);
+
+                checkpoint.setLastUserId(userIds.get(userIds.size() - 1));
+                checkpoint.setProcessedUsers(checkpoint.getProcessedUsers() + userIds.size());
+                checkpoint.setFailedUsers(checkpoint.getFailedUsers() + failures.get());
+                RecommendationJobCheckpoint next = checkpoint;
+                checkpoint = transaction.execute(status -> write(results, inputs, readAt, next));
+
+                long elapsed = Math.max(1, System.currentTimeMillis() - started);
+                logger.info("Recomputed recommendations for {} users ({} failed), up to id {} ({} users/s)",
+                        checkpoint.getProcessedUsers(), checkpoint.getFailedUsers(), checkpoint.getLastUserId(),
+                        checkpoint.getProcessedUsers() * 1000 / elapsed);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        checkpoint.setCompletedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getCompletedAt());
+        RecommendationJobCheckpoint completed = checkpoint;
+        transaction.execute(status -> saveLeased(completed));
+        logger.info("Recommendation recomputation finished: {} users, {} failed", checkpoint.getProcessedUsers(),
+                checkpoint.getFailedUsers());
+    }
+
+    /**
+     * @param failures Incremented for each user that could not be scored
+     * @param inputs Filled with the number of assessments and skills read for each user
+     * @return ranked roles per user, empty for users with nothing to score; users that failed are left out and keep
+     *         their stored rows
+     */
+    private Map<Long, List<CareerRecommendationService.RankedRole>> score(ForkJoinPool pool,
+            RecommendationSnapshot catalog, List<Long> userIds, AtomicLong failures, Map<Long, Integer> inputs) {
+        Map<Long, List<UserAssessment>> assessments = userAssessmentRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(assessment -> assessment.getUser().getId()));
+        Map<Long, List<UserSkill>> skills = userSkillRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(userSkill -> userSkill.getUser().getId()));
+
+        Map<Long, List<CareerRecommendationService.RankedRole>> results = new ConcurrentHashMap<>();
+        try {
+            pool.submit(() -> userIds.parallelStream()
+                    .forEach(userId -> {
+                        try {
+                            List<UserAssessment> userAssessments = assessments.get(userId);
+                            List<UserSkill> userSkills = skills.getOrDefault(userId, Collections.emptyList());
+                            inputs.put(userId, (userAssessments == null ? 0 : userAssessments.size()) + userSkills.size());
+                            Optional<UserFeatures> user = CareerRecommendationService.featuresOf(catalog,
+                                    userAssessments == null ? null : AssessmentProfileService.merge(userAssessments),
+                                    userSkills);
+                            results.put(userId, user.map(features -> careerRecommendationService.rankRoles(features,
+                                    RecommendationScores.compute(catalog, features), maxRecommendations))
+                                    .orElse(Collections.emptyList()));
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                            logger.warn("Skipping user {} in recommendation recomputation: {}", userId,
+                                    e.getMessage(), e);
+                        }
+                    })).get();
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scoring users", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not score users " + userIds.get(0) + "-"
+                    + userIds.get(userIds.size() - 1), e.getCause());
+        }
+    }
+
+    private RecommendationJobCheckpoint write(Map<Long, List<CareerRecommendationService.RankedRole>> results,
+                                              Map<Long, Integer> inputs, LocalDateTime readAt,
+                                              RecommendationJobCheckpoint checkpoint) {
+        // Holds the checkpoint row until commit, so the lease cannot be taken over halfway through the chunk
+        renewLease(checkpoint);
+
+        Long[] userIds = results.keySet().toArray(new Long[0]);
+        Integer[] inputCounts = new Integer[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            inputCounts[i] = inputs.get(userIds[i]);
+        }
+        Timestamp since = Timestamp.valueOf(readAt);
+        Set<Long> changed = userIds.length == 0 ? Collections.emptySet() : new HashSet<>(jdbcTemplate.queryForList(
+                CHANGED_SINCE_SQL, Long.class, userIds, inputCounts, since, since, since));
+        if (!changed.isEmpty()) {
+            logger.info("Leaving {} users changed since their chunk was read to the refresh worker", changed.size());
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> upserts = new ArrayList<>(results.size() * maxRecommendations);
+        List<Object[]> deletes = new ArrayList<>(results.size());
+        for (Map.Entry<Long, List<CareerRecommendationService.RankedRole>> entry : results.entrySet()) {
+            if (changed.contains(entry.getKey())) {
+                continue;
+            }
+            Long[] keptRoleIds = new Long[entry.getValue().size()];
+            for (int i = 0; i < keptRoleIds.length; i++) {
+                CareerRecommendationService.RankedRole ranked = entry.getValue().get(i);
+                keptRoleIds[i] = ranked.role.getId();
+                upserts.add(new Object[] {entry.getKey(), ranked.role.getId(), ranked.matchPercentage, ranked.reasoning,
+                        now, now});
+            }
+            // An empty array deletes all of the user's rows
+            deletes.add(new Object[] {entry.getKey(), keptRoleIds});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+        jdbcTemplate.batchUpdate(DELETE_STALE_SQL, deletes);
+
+        checkpoint.setUpdatedAt(now.toLocalDateTime());
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private RecommendationJobCheckpoint saveLeased(RecommendationJobCheckpoint checkpoint) {
+        renewLease(checkpoint);
+        return checkpointRepository.save(checkpoint);
+    }
+
+    // Fails the surrounding transaction if another node took the job over after this node's lease ran out
+    private void renewLease(RecommendationJobCheckpoint checkpoint) {
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+        if (checkpointRepository.renew(JOB_NAME, owner, leaseUntil) == 0) {
+            throw new IllegalStateException("Recommendation recomputation was taken over by another node");
+        }
+        checkpoint.setOwner(owner);
+        checkpoint.setLeaseUntil(leaseUntil);
+    }
+
+    private void release() {
+        try {
+            checkpointRepository.release(JOB_NAME, owner);
+        } catch (RuntimeException e) {
+            // The lease runs out on its own
+            logger.error("Could not release the recommendation recomputation lease: {}", e.getMessage(), e);
+        }
+    }
+}
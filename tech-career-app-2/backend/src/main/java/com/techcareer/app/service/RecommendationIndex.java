@@ -0,0 +1,149 @@
+package com.techcareer.app.service;
+
+import com.techcareer.app.model.CatalogChangedEvent;
+import com.techcareer.app.repository.CareerPathRepository;
+import com.techcareer.app.repository.JobRoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link RecommendationSnapshot} of the career catalog.
+ *
+ * The snapshot is built when the application starts and rebuilt on first use after a career path or job role
+ * changes; recommendation requests never vectorize the catalog themselves. A rebuild issues two queries, paths and
+ * roles each fetched together with their required skills.
+ *
+ * Changes made through this node arrive as a {@link CatalogChangedEvent} once they commit. Changes made by another
+ * node are caught by comparing the catalog's row counts and latest update times every
+ * {@code recommendation.catalog.check-interval-seconds}.
+ */
+@Component
+public class RecommendationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationIndex.class);
+
+    @Autowired
+    private CareerPathRepository careerPathRepository;
+
+    @Autowired
+    private JobRoleRepository jobRoleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${recommendation.catalog.check-interval-seconds:30}")
+    private long checkIntervalSeconds;
+
+    private volatile RecommendationSnapshot snapshot;
+
+    private volatile boolean stale = true;
+
+    // Catalog version the current snapshot was built from
+    private volatile List<Object> version;
+
+    private ScheduledExecutorService versionCheck;
+
+    @PostConstruct
+    public void start() {
+        versionCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-catalog-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        versionCheck.scheduleWithFixedDelay(this::checkForChanges, checkIntervalSeconds, checkIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        versionCheck.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        snapshot();
+    }
+
+    /**
+     * @return the current snapshot, rebuilding it first if the catalog changed since it was built
+     */
+    public RecommendationSnapshot snapshot() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    // Cleared before loading so a change committed during the rebuild triggers another one
+                    stale = false;
+                    snapshot = load();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    public void invalidate() {
+        stale = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Marks the index stale if the catalog in the database no longer matches the snapshot, as after a change
+     * committed by another node.
+     */
+    public void checkForChanges() {
+        try {
+            List<Object> current = readOnly().execute(status -> currentVersion());
+            if (version != null && !version.equals(current)) {
+                invalidate();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not check the career catalog for changes: {}", e.getMessage(), e);
+        }
+    }
+
+    private RecommendationSnapshot load() {
+        try {
+            return readOnly().execute(status -> {
+                // Read first: a change committed after this only makes the next check rebuild once more
+                List<Object> loadedVersion = currentVersion();
+                RecommendationSnapshot loaded = RecommendationSnapshot.build(careerPathRepository.findAll(),
+                        jobRoleRepository.findAllForRecommendations());
+                version = loadedVersion;
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        }
+    }
+
+    private List<Object> currentVersion() {
+        return Arrays.asList(careerPathRepository.count(), careerPathRepository.findLatestUpdate(),
+                jobRoleRepository.count(), jobRoleRepository.findLatestUpdate());
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+}
@@ -0,0 +1,26 @@
+package com.techcareer.app.service;
+
+/**
+ * Published when a user's assessment answers or skills change, before the change commits.
+ */
+public final class RecommendationInputChangedEvent {
+
+    private final Long userId;
+    private final int components;
+
+    public RecommendationInputChangedEvent(Long userId, int components) {
+        this.userId = userId;
+        this.components = components;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the score components affected, as {@code RecommendationScores} flags
+     */
+    public int getComponents() {
+        return components;
+    }
+}
@@ -0,0 +1,299 @@
+package com.techcareer.app.service;
+
+import com.techcareer.app.model.*;
+import com.techcareer.app.repository.CareerRecommendationRepository;
+import com.techcareer.app.repository.RecommendationRefreshMarkerRepository;
+import com.techcareer.app.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps each user's stored {@link CareerRecommendation} rows current.
+ *
+ * Saving a {@link UserAssessment} or {@link UserSkill} publishes a {@link RecommendationInputChangedEvent} (see
+ * {@link InputListener}). Once the change commits, the user is queued here and a background thread recomputes only
+ * the affected component scores, then upserts the user's rows in one transaction. Changes to a user that is already
+ * queued are coalesced into a single refresh.
+ *
+ * Each change is also recorded as a {@link RecommendationRefreshMarker}, cleared once the refresh is stored. Markers
+ * left behind by a failed refresh or a restart are picked up again by a retry thread, with exponential backoff.
+ */
+@Service
+public class RecommendationRefreshWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationRefreshWorker.class);
+
+    private static final long MAX_RETRY_DELAY_SECONDS = 3600;
+
+    @Autowired
+    private CareerRecommendationService careerRecommendationService;
+
+    @Autowired
+    private RecommendationIndex recommendationIndex;
+
+    @Autowired
+    private AssessmentProfileService assessmentProfileService;
+
+    @Autowired
+    private CareerRecommendationRepository careerRecommendationRepository;
+
+    @Autowired
+    private RecommendationRefreshMarkerRepository refreshMarkerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${recommendation.worker.threads:2}")
+    private int threads;
+
+    @Value("${recommendation.worker.max-recommendations:10}")
+    private int maxRecommendations;
+
+    @Value("${recommendation.worker.cached-users:10000}")
+    private int cachedUsers;
+
+    @Value("${recommendation.worker.retry-delay-seconds:60}")
+    private long retryDelaySeconds;
+
+    // Users waiting for a refresh, with the components changed since they were queued
+    private final ConcurrentHashMap<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    // One queue per thread, users assigned by id, so a user is never refreshed by two threads at once
+    private List<BlockingQueue<Long>> queues;
+
+    // Last scores per user, so a refresh only recomputes the components that changed
+    private final Map<Long, RecommendationScores> scores = Collections.synchronizedMap(
+            new LinkedHashMap<Long, RecommendationScores>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, RecommendationScores> eldest) {
+                    return size() > cachedUsers;
+                }
+            });
+
+    private ExecutorService workers;
+
+    private ScheduledExecutorService retries;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        queues = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+            queues.add(queue);
+            workers.execute(() -> workLoop(queue));
+        }
+        retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-refresh-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retries.scheduleWithFixedDelay(this::requeueDueMarkers, retryDelaySeconds, retryDelaySeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        retries.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInputChanged(RecommendationInputChangedEvent event) {
+        if ((event.getComponents() & ~RecommendationScores.SKILLS) != 0) {
+            assessmentProfileService.evict(event.getUserId());
+        }
+        try {
+            // Only retried if the in-memory refresh has not cleared it by then
+            refreshMarkerRepository.mark(event.getUserId(), event.getComponents(),
+                    LocalDateTime.now().plusSeconds(retryDelaySeconds));
+        } catch (RuntimeException e) {
+            logger.error("Could not record recommendation change for user {}: {}", event.getUserId(), e.getMessage(), e);
+        }
+        requestRefresh(event.getUserId(), event.getComponents());
+    }
+
+    /**
+     * Queues a full refresh of the user's stored recommendations.
+     */
+    public void requestRefresh(Long userId) {
+        requestRefresh(userId, RecommendationScores.ALL);
+    }
+
+    private void requestRefresh(Long userId, int components) {
+        boolean[] queued = new boolean[1];
+        pending.compute(userId, (id, changed) -> {
+            if (changed == null) {
+                queued[0] = true;
+                return components;
+            }
+            return changed | components;
+        });
+        if (queued[0]) {
+            queues.get((int) Math.floorMod(userId, (long) queues.size())).add(userId);
+        }
+    }
+
+    private void workLoop(BlockingQueue<Long> queue) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Long userId;
+            try {
+                userId = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Integer changed = pending.remove(userId);
+            int components = changed == null ? RecommendationScores.ALL : changed;
+            RecommendationRefreshMarker marker = null;
+            try {
+                marker = refreshMarkerRepository.findById(userId).orElse(null);
+                if (marker != null) {
+                    components |= marker.getComponents();
+                }
+                refresh(userId, components);
+                if (marker != null) {
+                    refreshMarkerRepository.clear(userId, marker.getVersion());
+                }
+            } catch (RuntimeException e) {
+                // The retry starts from scratch
+                scores.remove(userId);
+                logger.error("Could not refresh recommendations for user {}: {}", userId, e.getMessage(), e);
+                scheduleRetry(userId, components, marker == null ? 0 : marker.getAttempts());
+            }
+        }
+    }
+
+    private void scheduleRetry(Long userId, int components, int attempts) {
+        long delay = Math.min(retryDelaySeconds << Math.min(attempts, 16), MAX_RETRY_DELAY_SECONDS);
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusSeconds(delay);
+        try {
+            if (refreshMarkerRepository.deferRetry(userId, nextAttemptAt) == 0) {
+                refreshMarkerRepository.mark(userId, components, nextAttemptAt);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not schedule recommendation retry for user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    private void requeueDueMarkers() {
+        try {
+            for (RecommendationRefreshMarker marker :
+                    refreshMarkerRepository.findTop500ByNextAttemptAtLessThanEqualOrderByNextAttemptAt(LocalDateTime.now())) {
+                requestRefresh(marker.getUserId(), marker.getComponents());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not requeue pending recommendation refreshes: {}", e.getMessage(), e);
+        }
+    }
+
+    private void refresh(Long userId, int changed) {
+        if ((changed & ~RecommendationScores.SKILLS) != 0) {
+            // A load that raced the change's commit may have cached the old answers since onInputChanged evicted them
+            assessmentProfileService.evict(userId);
+        }
+        RecommendationSnapshot catalog = recommendationIndex.snapshot();
+        Optional<UserFeatures> features = careerRecommendationService.featuresFor(userId, catalog);
+        if (!features.isPresent()) {
+            // The last assessment and skill are gone; nothing the stored rows were based on is left
+            scores.remove(userId);
+            store(userId, Collections.emptyList());
+            return;
+        }
+        RecommendationScores previous = scores.get(userId);
+        RecommendationScores current = previous != null && previous.catalog == catalog
+                ? previous.update(features.get(), changed)
+                : RecommendationScores.compute(catalog, features.get());
+        scores.put(userId, current);
+        store(userId, careerRecommendationService.rankRoles(features.get(), current, maxRecommendations));
+    }
+
+    /**
+     * Replaces the user's rows with the newly ranked roles, updating rows for roles that are still recommended
+     * instead of deleting and re-inserting them.
+     */
+    private void store(Long userId, List<CareerRecommendationService.RankedRole> ranked) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = userRepository.getReferenceById(userId);
+            Map<Long, CareerRecommendation> existing = new HashMap<>();
+            for (CareerRecommendation recommendation : careerRecommendationRepository.findByUserOrderByMatchPercentageDesc(user)) {
+                existing.put(recommendation.getJobRole().getId(), recommendation);
+            }
+            List<CareerRecommendation> upserts = new ArrayList<>(ranked.size());
+            for (CareerRecommendationService.RankedRole rankedRole : ranked) {
+                CareerRecommendation recommendation = existing.remove(rankedRole.role.getId());
+                if (recommendation == null) {
+                    recommendation = new CareerRecommendation();
+                    recommendation.setUser(user);
+                    recommendation.setJobRole(rankedRole.role);
+                }
+                recommendation.setMatchPercentage(rankedRole.matchPercentage);
+                recommendation.setReasoning(rankedRole.reasoning);
+                upserts.add(recommendation);
+            }
+            careerRecommendationRepository.saveAll(upserts);
+            careerRecommendationRepository.deleteAllInBatch(existing.values());
+        });
+    }
+
+    /**
+     * Publishes a {@link RecommendationInputChangedEvent} when an assessment or user skill is saved or removed.
+     */
+    public static class InputListener {
+
+        @Autowired
+        private ApplicationEventPublisher publisher;
+
+        @PostPersist
+        @PostUpdate
+        @PostRemove
+        public void inputChanged(Object entity) {
+            if (entity instanceof UserSkill) {
+                publish(((UserSkill) entity).getUser(), RecommendationScores.SKILLS);
+            } else if (entity instanceof UserAssessment) {
+                UserAssessment assessment = (UserAssessment) entity;
+                publish(assessment.getUser(), componentsOf(assessment.getAssessmentType()));
+            }
+        }
+
+        private void publish(User user, int components) {
+            if (user != null && components != 0) {
+                publisher.publishEvent(new RecommendationInputChangedEvent(user.getId(), components));
+            }
+        }
+
+        private static int componentsOf(String assessmentType) {
+            switch (assessmentType) {
+                case AssessmentProfile.INTEREST: return RecommendationScores.INTEREST;
+                case AssessmentProfile.WORK_STYLE: return RecommendationScores.WORK_STYLE;
+                case AssessmentProfile.TECH_ACCESS: return RecommendationScores.ACCESS;
+                case AssessmentProfile.JOB_ROLE: return RecommendationScores.ROLES;
+                default: return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.techcareer.app.service;
+
+import java.util.Arrays;
+
+/**
+ * One user's component scores against every path of a {@link RecommendationSnapshot}.
+ *
+ * Instances are immutable; {@link #update} recomputes only the components that changed and shares the other arrays
+ * with the previous instance.
+ */
+final class RecommendationScores {
+
+    static final int INTEREST = 1;
+    static final int SKILLS = 1 << 1;
+    static final int WORK_STYLE = 1 << 2;
+    static final int ACCESS = 1 << 3;
+    // Job role preferences only affect which roles are listed, not the path scores
+    static final int ROLES = 1 << 4;
+    static final int ALL = INTEREST | SKILLS | WORK_STYLE | ACCESS | ROLES;
+
+    final RecommendationSnapshot catalog;
+    final double[] interest;
+    final double[] skill;
+    final double[] workStyle;
+    final double[] access;
+    final double[] match;
+
+    private RecommendationScores(RecommendationSnapshot catalog, UserFeatures user, RecommendationScores previous,
+                                 int changed) {
+        this.catalog = catalog;
+        int n = catalog.size();
+        boolean newInterest = previous == null || (changed & INTEREST) != 0;
+        boolean newSkill = previous == null || (changed & SKILLS) != 0;
+        boolean newWorkStyle = previous == null || (changed & WORK_STYLE) != 0;
+        boolean newAccess = previous == null || (changed & ACCESS) != 0;
+        interest = newInterest ? new double[n] : previous.interest;
+        skill = newSkill ? new double[n] : previous.skill;
+        workStyle = newWorkStyle ? new double[n] : previous.workStyle;
+        access = newAccess ? new double[n] : previous.access;
+        match = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (newInterest) {
+                interest[i] = catalog.interestScore(user, i);
+            }
+            if (newSkill) {
+                skill[i] = catalog.skillScore(user, i);
+            }
+            if (newWorkStyle) {
+                workStyle[i] = catalog.workStyleScore(user, i);
+            }
+            if (newAccess) {
+                access[i] = catalog.accessScore(user, i);
+            }
+            match[i] = CareerRecommendationService.calculateMatchScore(interest[i], skill[i], workStyle[i], access[i]);
+        }
+    }
+
+    static RecommendationScores compute(RecommendationSnapshot catalog, UserFeatures user) {
+        return new RecommendationScores(catalog, user, null, ALL);
+    }
+
+    /**
+     * @param user    the user's features after the change, built against the same snapshot
+     * @param changed the {@link #INTEREST}, {@link #SKILLS}, ... components whose inputs changed
+     */
+    RecommendationScores update(UserFeatures user, int changed) {
+        return new RecommendationScores(catalog, user, this, changed);
+    }
+
+    /**
+     * @return path indexes ordered by match score, best first
+     */
+    int[] ranking() {
+        Integer[] order = new Integer[match.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(match[b], match[a]));
+        int[] ranking = new int[order.length];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = order[i];
+        }
+        return ranking;
+    }
+}
@@ -0,0 +1,378 @@
+package com.techcareer.app.service;
+
+import com.techcareer.app.model.CareerPath;
+import com.techcareer.app.model.JobRole;
+
+import java.util.*;
+
+/**
+ * Immutable, vectorized view of the career catalog used to score users.
+ *
+ * Every string the scorers used to split and compare per request is interned once here:
+ * - path keywords and work cultures become bitsets over a shared vocabulary
+ * - required skill lists become dense skill indexes
+ * - work environment, team size and problem-solving texts become ids into small tables of distinct values
+ * - access requirements become bit flags
+ *
+ * A {@link UserFeatures} built against the same snapshot can then be scored against every path with array lookups.
+ */
+public final class RecommendationSnapshot {
+
+    static final int REQUIRES_HIGH_END_COMPUTER = 1;
+    static final int REQUIRES_HIGH_SPEED_INTERNET = 1 << 1;
+    static final int REQUIRES_FULL_TIME = 1 << 2;
+
+    private static final double DEFAULT_SCORE = 50.0;
+
+    private final CareerPath[] paths;
+
+    // Interest matching: keyword vocabulary (trimmed, lower-cased) and per-path keyword bitsets
+    final String[] keywords;
+    private final long[][] pathKeywords;
+    // Denominator of the interest score: distinct raw keyword tokens of the path
+    private final int[] pathKeywordCounts;
+
+    // Work style: distinct environment/team/problem-solving texts, and each path's id into them
+    final String[] environments;
+    final String[] teamSizes;
+    final String[] problemSolvingApproaches;
+    private final int[] pathEnvironment;
+    private final int[] pathTeamSize;
+    private final int[] pathProblemSolving;
+    final Map<String, Integer> cultureIds;
+    private final long[][] pathCultures;
+
+    private final int[] pathAccessFlags;
+
+    // Skills: normalized skill name -> dense index, and each path's required skills as dense indexes
+    final Map<String, Integer> skillIndexes;
+    private final int[][] pathSkills;
+
+    // Job roles grouped by path; role titles interned for preference lookups
+    private final JobRole[][] roles;
+    private final int[][][] roleSkills;
+    private final int[][] roleTitles;
+    final Map<String, Integer> titleIds;
+
+    private RecommendationSnapshot(Builder builder) {
+        this.paths = builder.paths.toArray(new CareerPath[0]);
+        this.keywords = builder.keywordIds.keySet().toArray(new String[0]);
+        this.pathKeywords = builder.pathKeywords.toArray(new long[0][]);
+        this.pathKeywordCounts = builder.pathKeywordCounts;
+        this.environments = builder.environmentIds.keySet().toArray(new String[0]);
+        this.teamSizes = builder.teamSizeIds.keySet().toArray(new String[0]);
+        this.problemSolvingApproaches = builder.problemSolvingIds.keySet().toArray(new String[0]);
+        this.pathEnvironment = builder.pathEnvironment;
+        this.pathTeamSize = builder.pathTeamSize;
+        this.pathProblemSolving = builder.pathProblemSolving;
+        this.cultureIds = Collections.unmodifiableMap(builder.cultureIds);
+        this.pathCultures = builder.pathCultures.toArray(new long[0][]);
+        this.pathAccessFlags = builder.pathAccessFlags;
+        this.skillIndexes = Collections.unmodifiableMap(builder.skillIndexes);
+        this.pathSkills = builder.pathSkills.toArray(new int[0][]);
+        this.roles = builder.roles.toArray(new JobRole[0][]);
+        this.roleSkills = builder.roleSkills.toArray(new int[0][][]);
+        this.roleTitles = builder.roleTitles.toArray(new int[0][]);
+        this.titleIds = Collections.unmodifiableMap(builder.titleIds);
+    }
+
+    /**
+     * Vectorizes the catalog. Each role's career path must be loadable while this runs.
+     */
+    public static RecommendationSnapshot build(List<CareerPath> careerPaths, List<JobRole> jobRoles) {
+        Builder builder = new Builder(careerPaths.size());
+        Map<Long, List<JobRole>> rolesByPath = new HashMap<>();
+        for (JobRole role : jobRoles) {
+            if (role.getCareerPath() != null) {
+                rolesByPath.computeIfAbsent(role.getCareerPath().getId(), id -> new ArrayList<>()).add(role);
+            }
+        }
+        for (CareerPath path : careerPaths) {
+            builder.add(path, rolesByPath.getOrDefault(path.getId(), Collections.emptyList()));
+        }
+        return new RecommendationSnapshot(builder.finish());
+    }
+
+    public int size() {
+        return paths.length;
+    }
+
+    public CareerPath path(int index) {
+        return paths[index];
+    }
+
+    public boolean isEmpty() {
+        return paths.length == 0;
+    }
+
+    /**
+     * Interest score per path: share of the path's keywords matched by the user's interests, plus 10 for a matching
+     * problem-solving approach, capped at 100.
+     */
+    double interestScore(UserFeatures user, int path) {
+        if (!user.hasInterestAssessment) {
+            return DEFAULT_SCORE;
+        }
+        long[] keywordBits = pathKeywords[path];
+        int matchCount = 0;
+        for (long[] interest : user.interestKeywordMatches) {
+            if (intersects(interest, keywordBits)) {
+                matchCount++;
+            }
+        }
+        int keywordCount = pathKeywordCounts[path];
+        double score = keywordCount == 0 ? 0 : (double) matchCount / keywordCount * 100;
+        if (user.problemSolvingMatches[pathProblemSolving[path]]) {
+            score += 10;
+        }
+        return Math.min(score, 100);
+    }
+
+    /**
+     * Skill score per path: mean of the user's per-skill scores over the path's required skills.
+     */
+    double skillScore(UserFeatures user, int path) {
+        return meanSkillScore(user, pathSkills[path]);
+    }
+
+    double workStyleScore(UserFeatures user, int path) {
+        if (!user.hasWorkStyleAssessment) {
+            return DEFAULT_SCORE;
+        }
+        double environmentMatch = user.environmentMatches[pathEnvironment[path]] ? 100
+                : user.flexibleEnvironment ? 80 : 40;
+        double teamMatch = user.teamSizeMatches[pathTeamSize[path]] ? 100
+                : user.flexibleTeamSize ? 80 : 40;
+        double cultureMatch;
+        if (user.cultureIds.length == 0) {
+            cultureMatch = 50;
+        } else {
+            long[] cultures = pathCultures[path];
+            int matched = 0;
+            for (int culture : user.cultureIds) {
+                if (culture >= 0 && (cultures[culture >>> 6] & (1L << culture)) != 0) {
+                    matched++;
+                }
+            }
+            cultureMatch = (double) matched / user.cultureIds.length * 100;
+        }
+        return (environmentMatch * 0.4) + (teamMatch * 0.3) + (cultureMatch * 0.3);
+    }
+
+    double accessScore(UserFeatures user, int path) {
+        if (!user.hasAccessAssessment) {
+            return DEFAULT_SCORE;
+        }
+        int flags = pathAccessFlags[path];
+        double computer = user.computerScore;
+        double internet = user.internetScore;
+        double time = user.timeScore;
+        if ((flags & REQUIRES_HIGH_END_COMPUTER) != 0 && !user.dedicatedComputer) {
+            computer *= 0.7;
+        }
+        if ((flags & REQUIRES_HIGH_SPEED_INTERNET) != 0 && !user.highSpeedInternet) {
+            internet *= 0.7;
+        }
+        if ((flags & REQUIRES_FULL_TIME) != 0 && !user.fullTime) {
+            time *= 0.7;
+        }
+        return (computer * 0.3) + (internet * 0.3) + (time * 0.4);
+    }
+
+    /**
+     * @return the path's job roles ranked by fit for the user, best first, at most {@code limit}
+     */
+    List<JobRole> topRoles(UserFeatures user, int path, int limit) {
+        JobRole[] pathRoles = roles[path];
+        int count = pathRoles.length;
+        double[] scores = new double[count];
+        Integer[] order = new Integer[count];
+        for (int r = 0; r < count; r++) {
+            double score = user.titleInterest(roleTitles[path][r]);
+            double skillMatch = meanSkillScore(user, roleSkills[path][r]);
+            // Explicit interest and skill match count equally when the user picked the role
+            scores[r] = score > 0 ? (score + skillMatch) / 2 : skillMatch;
+            order[r] = r;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        List<JobRole> top = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; i < count && i < limit; i++) {
+            top.add(pathRoles[order[i]]);
+        }
+        return top;
+    }
+
+    private static double meanSkillScore(UserFeatures user, int[] requiredSkills) {
+        if (requiredSkills.length == 0) {
+            return DEFAULT_SCORE;
+        }
+        double total = 0;
+        for (int skill : requiredSkills) {
+            total += user.skillScores[skill];
+        }
+        return total / requiredSkills.length;
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long[] bitset(int size) {
+        return new long[Math.max(1, (size + 63) >>> 6)];
+    }
+
+    static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Builder {
+
+        final List<CareerPath> paths;
+        final Map<String, Integer> keywordIds = new LinkedHashMap<>();
+        final List<String[]> rawKeywords;
+        final int[] pathKeywordCounts;
+        final Map<String, Integer> environmentIds = new LinkedHashMap<>();
+        final Map<String, Integer> teamSizeIds = new LinkedHashMap<>();
+        final Map<String, Integer> problemSolvingIds = new LinkedHashMap<>();
+        final int[] pathEnvironment;
+        final int[] pathTeamSize;
+        final int[] pathProblemSolving;
+        final Map<String, Integer> cultureIds = new LinkedHashMap<>();
+        final List<String[]> rawCultures;
+        final int[] pathAccessFlags;
+        final Map<String, Integer> skillIndexes = new HashMap<>();
+        final List<int[]> pathSkills;
+        final List<JobRole[]> roles;
+        final List<int[][]> roleSkills;
+        final List<int[]> roleTitles;
+        final Map<String, Integer> titleIds = new HashMap<>();
+        final List<long[]> pathKeywords;
+        final List<long[]> pathCultures;
+
+        Builder(int capacity) {
+            paths = new ArrayList<>(capacity);
+            rawKeywords = new ArrayList<>(capacity);
+            rawCultures = new ArrayList<>(capacity);
+            pathKeywordCounts = new int[capacity];
+            pathEnvironment = new int[capacity];
+            pathTeamSize = new int[capacity];
+            pathProblemSolving = new int[capacity];
+            pathAccessFlags = new int[capacity];
+            pathSkills = new ArrayList<>(capacity);
+            roles = new ArrayList<>(capacity);
+            roleSkills = new ArrayList<>(capacity);
+            roleTitles = new ArrayList<>(capacity);
+            pathKeywords = new ArrayList<>(capacity);
+            pathCultures = new ArrayList<>(capacity);
+        }
+
+        void add(CareerPath path, List<JobRole> pathRoles) {
+            int index = paths.size();
+            paths.add(path);
+
+            String[] keywordTokens = path.getKeywords() == null ? new String[0] : path.getKeywords().split(",");
+            pathKeywordCounts[index] = new HashSet<>(Arrays.asList(keywordTokens)).size();
+            for (String token : keywordTokens) {
+                keywordIds.putIfAbsent(normalize(token), keywordIds.size());
+            }
+            rawKeywords.add(keywordTokens);
+
+            String[] cultureTokens = path.getWorkCulture() == null ? new String[0] : path.getWorkCulture().split(",");
+            for (String token : cultureTokens) {
+                cultureIds.putIfAbsent(normalize(token), cultureIds.size());
+            }
+            rawCultures.add(cultureTokens);
+
+            pathEnvironment[index] = intern(environmentIds, path.getTypicalWorkEnvironment());
+            pathTeamSize[index] = intern(teamSizeIds, path.getTypicalTeamSize());
+            pathProblemSolving[index] = intern(problemSolvingIds, path.getRequiredProblemSolvingApproach());
+
+            int flags = 0;
+            if ("high".equals(path.getMinimumComputerRequirements())) {
+                flags |= REQUIRES_HIGH_END_COMPUTER;
+            }
+            if ("high-speed".equals(path.getMinimumInternetRequirements())) {
+                flags |= REQUIRES_HIGH_SPEED_INTERNET;
+            }
+            if ("full-time".equals(path.getRecommendedTimeCommitment())) {
+                flags |= REQUIRES_FULL_TIME;
+            }
+            pathAccessFlags[index] = flags;
+
+            pathSkills.add(skillIndexes(path.getRequiredSkills()));
+
+            JobRole[] roleArray = pathRoles.toArray(new JobRole[0]);
+            int[][] skills = new int[roleArray.length][];
+            int[] titles = new int[roleArray.length];
+            for (int r = 0; r < roleArray.length; r++) {
+                skills[r] = skillIndexes(roleArray[r].getRequiredSkills());
+                titles[r] = intern(titleIds, roleArray[r].getTitle());
+            }
+            roles.add(roleArray);
+            roleSkills.add(skills);
+            roleTitles.add(titles);
+        }
+
+        /**
+         * Vocabulary sizes are only final after the last path, so the bitsets are built here.
+         */
+        Builder finish() {
+            for (String[] tokens : rawKeywords) {
+                long[] bits = bitset(keywordIds.size());
+                for (String token : tokens) {
+                    set(bits, keywordIds.get(normalize(token)));
+                }
+                pathKeywords.add(bits);
+            }
+            for (String[] tokens : rawCultures) {
+                long[] bits = bitset(cultureIds.size());
+                for (String token : tokens) {
+                    set(bits, cultureIds.get(normalize(token)));
+                }
+                pathCultures.add(bits);
+            }
+            return this;
+        }
+
+        /**
+         * @param skills Comma separated skill names, as stored in the required_skills columns
+         */
+        private int[] skillIndexes(String skills) {
+            if (skills == null) {
+                return new int[0];
+            }
+            Set<Integer> indexes = new LinkedHashSet<>();
+            for (String token : skills.split(",")) {
+                String name = normalize(token);
+                if (!name.isEmpty()) {
+                    indexes.add(skillIndexes.computeIfAbsent(name, key -> skillIndexes.size()));
+                }
+            }
+            int[] result = new int[indexes.size()];
+            int i = 0;
+            for (int index : indexes) {
+                result[i++] = index;
+            }
+            return result;
+        }
+
+        private static int intern(Map<String, Integer> ids, String value) {
+            String key = value == null ? "" : value;
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = ids.size();
+                ids.put(key, id);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.techcareer.app.service;
+
+import com.techcareer.app.model.AssessmentProfile;
+import com.techcareer.app.model.UserSkill;
+
+import java.util.*;
+
+/**
+ * A user's assessment profile and skills vectorized against one {@link RecommendationSnapshot}.
+ *
+ * Everything that depends only on the user is evaluated once here (including every string comparison against the
+ * snapshot's vocabularies), so scoring a path is reduced to array lookups.
+ */
+final class UserFeatures {
+
+    final boolean hasInterestAssessment;
+    // One bitset per tech interest: the catalog keywords it matches
+    final long[][] interestKeywordMatches;
+    // Indexed by the snapshot's distinct problem-solving approaches
+    final boolean[] problemSolvingMatches;
+
+    final boolean hasWorkStyleAssessment;
+    final boolean[] environmentMatches;
+    final boolean[] teamSizeMatches;
+    final boolean flexibleEnvironment;
+    final boolean flexibleTeamSize;
+    // Snapshot culture id per culture the user picked, -1 when no path mentions it
+    final int[] cultureIds;
+
+    final boolean hasAccessAssessment;
+    final double computerScore;
+    final double internetScore;
+    final double timeScore;
+    final boolean dedicatedComputer;
+    final boolean highSpeedInternet;
+    final boolean fullTime;
+
+    // Indexed by the snapshot's dense skill index; 0 for skills the user does not have
+    final double[] skillScores;
+    // Indexed by the snapshot's role title id; 0 for roles the user did not select
+    private final double[] titleInterest;
+
+    private UserFeatures(RecommendationSnapshot snapshot, AssessmentProfile profile, List<UserSkill> userSkills) {
+        AssessmentProfile.Interests interests = profile.getInterests();
+        hasInterestAssessment = interests != null;
+        if (interests != null) {
+            List<String> techInterests = interests.getTechInterests();
+            interestKeywordMatches = new long[techInterests.size()][];
+            for (int i = 0; i < interestKeywordMatches.length; i++) {
+                interestKeywordMatches[i] = keywordMatches(snapshot.keywords, techInterests.get(i));
+            }
+            problemSolvingMatches = containedIn(snapshot.problemSolvingApproaches, interests.problemSolving);
+        } else {
+            interestKeywordMatches = new long[0][];
+            problemSolvingMatches = new boolean[snapshot.problemSolvingApproaches.length];
+        }
+
+        AssessmentProfile.WorkStyle workStyle = profile.getWorkStyle();
+        hasWorkStyleAssessment = workStyle != null;
+        if (workStyle != null) {
+            environmentMatches = containedIn(snapshot.environments, workStyle.workEnvironment);
+            teamSizeMatches = containedIn(snapshot.teamSizes, workStyle.teamSize);
+            flexibleEnvironment = workStyle.flexibleEnvironment();
+            flexibleTeamSize = workStyle.flexibleTeamSize();
+            List<String> workCulture = workStyle.getWorkCulture();
+            cultureIds = new int[workCulture.size()];
+            for (int i = 0; i < cultureIds.length; i++) {
+                cultureIds[i] = snapshot.cultureIds.getOrDefault(workCulture.get(i), -1);
+            }
+        } else {
+            environmentMatches = new boolean[snapshot.environments.length];
+            teamSizeMatches = new boolean[snapshot.teamSizes.length];
+            flexibleEnvironment = false;
+            flexibleTeamSize = false;
+            cultureIds = new int[0];
+        }
+
+        AssessmentProfile.TechAccess access = profile.getTechAccess();
+        hasAccessAssessment = access != null;
+        if (access != null) {
+            computerScore = access.computer.score;
+            internetScore = access.internet.score * (access.internetSpeed / 10.0);
+            timeScore = access.time.score;
+            dedicatedComputer = access.computer == AssessmentProfile.ComputerAccess.DEDICATED;
+            highSpeedInternet = access.internet == AssessmentProfile.InternetAccess.HIGH_SPEED;
+            fullTime = access.time == AssessmentProfile.TimeAvailability.THIRTY_PLUS;
+        } else {
+            computerScore = 0;
+            internetScore = 0;
+            timeScore = 0;
+            dedicatedComputer = false;
+            highSpeedInternet = false;
+            fullTime = false;
+        }
+
+        skillScores = new double[snapshot.skillIndexes.size()];
+        for (UserSkill userSkill : userSkills) {
+            Integer index = snapshot.skillIndexes.get(RecommendationSnapshot.normalize(userSkill.getSkill().getName()));
+            if (index != null) {
+                skillScores[index] = skillScore(userSkill);
+            }
+        }
+
+        titleInterest = new double[snapshot.titleIds.size()];
+        AssessmentProfile.RolePreferences roles = profile.getRolePreferences();
+        if (roles != null) {
+            List<String> selectedRoles = roles.getSelectedRoles();
+            for (int i = 0; i < selectedRoles.size(); i++) {
+                Integer id = snapshot.titleIds.get(selectedRoles.get(i));
+                if (id != null) {
+                    // Interest level 1-5 maps to 60-100
+                    titleInterest[id] = 50 + roles.getInterestLevel(i) * 10;
+                }
+            }
+        }
+    }
+
+    static UserFeatures of(RecommendationSnapshot snapshot, AssessmentProfile profile, List<UserSkill> userSkills) {
+        return new UserFeatures(snapshot, profile, userSkills);
+    }
+
+    double titleInterest(int titleId) {
+        return titleInterest[titleId];
+    }
+
+    /**
+     * Proficiency (Beginner, Intermediate, Advanced) as a percentage, plus 10 each for a strength and an interest,
+     * capped at 100.
+     */
+    static double skillScore(UserSkill userSkill) {
+        double proficiencyMatch = proficiency(userSkill.getProficiencyLevel()) / 3.0 * 100;
+        if (Boolean.TRUE.equals(userSkill.getIsStrength())) {
+            proficiencyMatch += 10;
+        }
+        if (Boolean.TRUE.equals(userSkill.getIsInterest())) {
+            proficiencyMatch += 10;
+        }
+        return Math.min(proficiencyMatch, 100);
+    }
+
+    private static int proficiency(String level) {
+        switch (RecommendationSnapshot.normalize(level)) {
+            case "beginner":
+                return 1;
+            case "intermediate":
+                return 2;
+            case "advanced":
+                return 3;
+            default:
+                return 0;
+        }
+    }
+
+
+    private static long[] keywordMatches(String[] keywords, String interest) {
+        long[] bits = RecommendationSnapshot.bitset(keywords.length);
+        for (int k = 0; k < keywords.length; k++) {
+            if (keywords[k].contains(interest) || interest.contains(keywords[k])) {
+                RecommendationSnapshot.set(bits, k);
+            }
+        }
+        return bits;
+    }
+
+    private static boolean[] containedIn(String[] values, String preference) {
+        boolean[] matches = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            matches[i] = values[i].contains(preference);
+        }
+        return matches;
+    }
+}
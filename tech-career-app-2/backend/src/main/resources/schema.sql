@@ -58,6 +58,14 @@ CREATE TABLE career_paths (
     market_demand VARCHAR(50), -- High, Medium, Low
     growth_potential TEXT,
     entry_level_friendly BOOLEAN DEFAULT FALSE,
+    keywords TEXT,
+    work_culture TEXT,
+    typical_work_environment VARCHAR(50), -- remote, office, hybrid
+    typical_team_size VARCHAR(50), -- small, medium, large
+    required_problem_solving_approach TEXT,
+    minimum_computer_requirements VARCHAR(50), -- standard, high
+    minimum_internet_requirements VARCHAR(50), -- moderate, high-speed
+    recommended_time_commitment VARCHAR(50), -- part-time, full-time
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -179,6 +187,7 @@ CREATE TABLE user_assessments (
     assessment_type VARCHAR(50) NOT NULL, -- INTEREST, SKILL, WORK_STYLE, TECH_ACCESS
     completed_at TIMESTAMP,
     results JSON,
+    profile BYTEA, -- encoded AssessmentProfile
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -216,6 +225,28 @@ CREATE TABLE career_recommendations (
     UNIQUE(user_id, job_role_id)
 );
 
+-- Progress of the bulk recommendation recomputation
+CREATE TABLE recommendation_job_checkpoints (
+    job_name VARCHAR(50) PRIMARY KEY,
+    last_user_id BIGINT NOT NULL,
+    processed_users BIGINT NOT NULL,
+    failed_users BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    owner VARCHAR(100), -- node holding the run's lease
+    lease_until TIMESTAMP
+);
+
+-- Users whose stored recommendations still need a refresh
+CREATE TABLE recommendation_refresh_markers (
+    user_id INTEGER PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    components INTEGER NOT NULL, -- RecommendationScores flags
+    version BIGINT NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL
+);
+
 -- Community Forum Categories
 CREATE TABLE forum_categories (
     id SERIAL PRIMARY KEY,
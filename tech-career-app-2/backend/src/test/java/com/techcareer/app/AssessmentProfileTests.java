@@ -0,0 +1,92 @@
+package com.techcareer.app;
+
+import com.techcareer.app.model.AssessmentProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AssessmentProfileTests {
+
+    @Test
+    public void testProfileSurvivesEncoding() {
+        Map<String, Object> access = new HashMap<>();
+        access.put("computerAccess", "dedicated");
+        access.put("internetAccess", "mobile");
+        access.put("internetSpeed", 7);
+        Map<String, Object> workStyle = new HashMap<>();
+        workStyle.put("workEnvironment", "remote");
+        workStyle.put("workCulture", Arrays.asList(" Collaborative", "Fast-paced"));
+
+        AssessmentProfile decoded = AssessmentProfile.decode(AssessmentProfile.parse("TECH_ACCESS", access).encode())
+                .merge(AssessmentProfile.decode(AssessmentProfile.parse("WORK_STYLE", workStyle).encode()));
+
+        assertThat(decoded.getInterests()).isNull();
+        assertThat(decoded.getTechAccess().computer).isEqualTo(AssessmentProfile.ComputerAccess.DEDICATED);
+        assertThat(decoded.getTechAccess().internet).isEqualTo(AssessmentProfile.InternetAccess.MOBILE);
+        assertThat(decoded.getTechAccess().internetSpeed).isEqualTo(7);
+        assertThat(decoded.getTechAccess().time).isEqualTo(AssessmentProfile.TimeAvailability.UNDER_FIVE);
+        assertThat(decoded.getWorkStyle().workEnvironment).isEqualTo("remote");
+        assertThat(decoded.getWorkStyle().teamSize).isEmpty();
+        assertThat(decoded.getWorkStyle().getWorkCulture()).containsExactly("collaborative", "fast-paced");
+    }
+
+    @Test
+    public void testRejectsAnswersOutOfRange() {
+        assertThatThrownBy(() -> AssessmentProfile.parse("TECH_ACCESS", Collections.singletonMap("internetSpeed", 11)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AssessmentProfile.parse("TECH_ACCESS", Collections.singletonMap("internetSpeed", "0")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        Map<String, Object> roles = new HashMap<>();
+        roles.put("selectedRoles", Collections.singletonList("Data Analyst"));
+        roles.put("rolePreferences", Collections.singletonMap("Data Analyst", 6));
+        assertThatThrownBy(() -> AssessmentProfile.parse("JOB_ROLE", roles))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testRejectsDamagedEncodings() {
+        Map<String, Object> access = new HashMap<>();
+        access.put("computerAccess", "dedicated");
+        byte[] encoded = AssessmentProfile.parse("TECH_ACCESS", access).encode();
+
+        // Version, section flags, then the computer access ordinal
+        byte[] unknownConstant = encoded.clone();
+        unknownConstant[2] = 42;
+        assertThatThrownBy(() -> AssessmentProfile.decode(unknownConstant))
+                .isInstanceOf(IllegalArgumentException.class);
+        byte[] negativeConstant = encoded.clone();
+        negativeConstant[2] = -1;
+        assertThatThrownBy(() -> AssessmentProfile.decode(negativeConstant))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AssessmentProfile.decode(Arrays.copyOf(encoded, 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testDecodedListsCannotBeModified() {
+        Map<String, Object> roles = new HashMap<>();
+        roles.put("selectedRoles", Collections.singletonList("Data Analyst"));
+        AssessmentProfile profile = AssessmentProfile.decode(AssessmentProfile.parse("JOB_ROLE", roles).encode());
+
+        assertThatThrownBy(() -> profile.getRolePreferences().getSelectedRoles().set(0, "Other"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(profile.getRolePreferences().getInterestLevel(0)).isEqualTo(3);
+    }
+
+    @Test
+    public void testRejectsAnswersTooLargeToEncode() {
+        char[] longAnswer = new char[30000];
+        Arrays.fill(longAnswer, '\u20ac');
+        assertThatThrownBy(() -> AssessmentProfile.parse("INTEREST",
+                Collections.singletonMap("problemSolving", new String(longAnswer))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> AssessmentProfile.parse("INTEREST",
+                Collections.singletonMap("techInterests", Collections.nCopies(70000, "java"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,269 @@
+package com.techcareer.app;
+
+import com.techcareer.app.model.*;
+import com.techcareer.app.repository.RecommendationJobCheckpointRepository;
+import com.techcareer.app.repository.UserAssessmentRepository;
+import com.techcareer.app.repository.UserSkillRepository;
+import com.techcareer.app.service.CareerRecommendationService;
+import com.techcareer.app.service.RecommendationBatchJob;
+import com.techcareer.app.service.RecommendationIndex;
+import com.techcareer.app.service.RecommendationSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.techcareer.app.RecommendationFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RecommendationBatchJobTests {
+
+    private static final List<Long> USER_IDS = Arrays.asList(1L, 2L, 3L, 4L, 5L);
+    // User 3's stored profile cannot be decoded; user 4 has neither assessments nor skills
+    private static final long BROKEN_USER = 3L;
+    private static final long UNASSESSED_USER = 4L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RecommendationIndex recommendationIndex;
+
+    @Mock
+    private UserAssessmentRepository userAssessmentRepository;
+
+    @Mock
+    private UserSkillRepository userSkillRepository;
+
+    @Mock
+    private RecommendationJobCheckpointRepository checkpointRepository;
+
+    private RecommendationBatchJob job;
+
+    // lastUserId/processedUsers/failedUsers/completed at every save, since the job keeps saving the same instance
+    private final List<String> savedCheckpoints = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        CareerPath web = path(1L, "Web Development", "web, frontend,javascript", "JavaScript");
+        CareerPath data = path(2L, "Data Analysis", "data,statistics", "SQL");
+        when(recommendationIndex.snapshot()).thenReturn(RecommendationSnapshot.build(Arrays.asList(web, data),
+                Arrays.asList(role(10L, "Frontend Developer", web, "JavaScript"),
+                        role(11L, "Full Stack Developer", web, "JavaScript"), role(20L, "Data Analyst", data, "SQL"))));
+
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(2);
+            int limit = invocation.getArgument(3);
+            return USER_IDS.stream().filter(id -> id > after).limit(limit).collect(Collectors.toList());
+        });
+        when(userAssessmentRepository.findByUserIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != UNASSESSED_USER).map(RecommendationBatchJobTests::assessment)
+                    .collect(Collectors.toList());
+        });
+        when(userSkillRepository.findByUserIdIn(any())).thenReturn(Collections.emptyList());
+        when(checkpointRepository.acquire(eq(RecommendationBatchJob.JOB_NAME), anyString(), any(), any())).thenReturn(1);
+        when(checkpointRepository.renew(eq(RecommendationBatchJob.JOB_NAME), anyString(), any())).thenReturn(1);
+        when(checkpointRepository.save(any())).thenAnswer(invocation -> {
+            RecommendationJobCheckpoint checkpoint = invocation.getArgument(0);
+            savedCheckpoints.add(checkpoint.getLastUserId() + "/" + checkpoint.getProcessedUsers() + "/"
+                    + checkpoint.getFailedUsers() + "/" + (checkpoint.getCompletedAt() != null));
+            return checkpoint;
+        });
+
+        job = new RecommendationBatchJob();
+        ReflectionTestUtils.setField(job, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(job, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(job, "recommendationIndex", recommendationIndex);
+        ReflectionTestUtils.setField(job, "careerRecommendationService", new CareerRecommendationService());
+        ReflectionTestUtils.setField(job, "userAssessmentRepository", userAssessmentRepository);
+        ReflectionTestUtils.setField(job, "userSkillRepository", userSkillRepository);
+        ReflectionTestUtils.setField(job, "checkpointRepository", checkpointRepository);
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+        ReflectionTestUtils.setField(job, "parallelism", 2);
+        ReflectionTestUtils.setField(job, "maxRecommendations", 10);
+        ReflectionTestUtils.setField(job, "leaseSeconds", 300L);
+    }
+
+    @Test
+    public void testUpsertsRankedRolesAndDeletesOnlyTheRest() throws InterruptedException {
+        runJob(false);
+
+        List<Object[]> upserts = batchArgs("INSERT INTO career_recommendations");
+        assertThat(upserts).extracting(row -> row[0] + ":" + row[1])
+                .containsExactlyInAnyOrder("1:10", "1:11", "2:10", "2:11", "5:10", "5:11");
+        // Interest 76.7 from 2 of 3 keywords plus the problem-solving bonus; no skills, work style or access
+        assertThat(upserts).extracting(row -> row[2]).containsOnly(42);
+
+        List<Object[]> deletes = batchArgs("DELETE FROM career_recommendations");
+        assertThat(deletes).extracting(row -> row[0]).containsExactlyInAnyOrder(1L, 2L, 4L, 5L);
+        for (Object[] delete : deletes) {
+            if (delete[0].equals(UNASSESSED_USER)) {
+                // Nothing left to score, so none of the user's rows are kept
+                assertThat((Long[]) delete[1]).isEmpty();
+            } else {
+                assertThat((Long[]) delete[1]).containsExactlyInAnyOrder(10L, 11L);
+            }
+        }
+    }
+
+    @Test
+    public void testScoresUsersWithSkillsButNoAssessments() throws InterruptedException {
+        UserSkill skill = javascriptSkill();
+        skill.setUser(user(UNASSESSED_USER));
+        when(userSkillRepository.findByUserIdIn(any())).thenReturn(Collections.singletonList(skill));
+
+        runJob(false);
+
+        // Skill match 76.7 on Web Development; every assessment factor at its default of 50
+        assertThat(batchArgs("INSERT INTO career_recommendations"))
+                .filteredOn(row -> row[0].equals(UNASSESSED_USER))
+                .extracting(row -> row[1] + ":" + row[2])
+                .containsExactly("10:" + Math.round(0.35 * 50 + 0.35 * (2.0 / 3 * 100 + 10) + 0.2 * 50 + 0.1 * 50),
+                        "11:" + Math.round(0.35 * 50 + 0.35 * (2.0 / 3 * 100 + 10) + 0.2 * 50 + 0.1 * 50),
+                        "20:" + Math.round(0.35 * 50 + 0.2 * 50 + 0.1 * 50));
+    }
+
+    @Test
+    public void testCheckpointsEachChunkAndCountsFailedUsers() throws InterruptedException {
+        runJob(false);
+
+        // Fresh checkpoint, one per chunk of two users, then the completion
+        assertThat(savedCheckpoints).containsExactly("0/0/0/false", "2/2/0/false", "4/4/1/false", "5/5/1/false",
+                "5/5/1/true");
+    }
+
+    @Test
+    public void testResumesAfterLastCommittedChunk() throws InterruptedException {
+        LocalDateTime startedAt = LocalDateTime.now().minusHours(1);
+        when(checkpointRepository.findById(RecommendationBatchJob.JOB_NAME)).thenReturn(Optional.of(
+                new RecommendationJobCheckpoint(RecommendationBatchJob.JOB_NAME, 2L, 2L, 0L, startedAt, startedAt, null,
+                        null, null)));
+
+        runJob(false);
+
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), eq(0L), any());
+        assertThat(batchArgs("DELETE FROM career_recommendations")).extracting(row -> row[0])
+                .containsExactlyInAnyOrder(4L, 5L);
+        assertThat(savedCheckpoints).containsExactly("4/4/1/false", "5/5/1/false", "5/5/1/true");
+    }
+
+    @Test
+    public void testRestartIgnoresUnfinishedCheckpoint() throws InterruptedException {
+        LocalDateTime startedAt = LocalDateTime.now().minusHours(1);
+        when(checkpointRepository.findById(RecommendationBatchJob.JOB_NAME)).thenReturn(Optional.of(
+                new RecommendationJobCheckpoint(RecommendationBatchJob.JOB_NAME, 2L, 2L, 0L, startedAt, startedAt, null,
+                        null, null)));
+
+        runJob(true);
+
+        assertThat(savedCheckpoints.get(0)).isEqualTo("0/0/0/false");
+        assertThat(savedCheckpoints).last().isEqualTo("5/5/1/true");
+    }
+
+    @Test
+    public void testLeavesUsersChangedSinceTheChunkWasReadToTheWorker() throws InterruptedException {
+        // User 2 saved an assessment, or the refresh worker stored their rows, while the first chunk was scored
+        when(jdbcTemplate.queryForList(startsWith("SELECT seen.user_id"), eq(Long.class), any(), any(), any(), any(),
+                any())).thenAnswer(invocation -> {
+                    Long[] userIds = invocation.getArgument(2);
+                    return Arrays.asList(userIds).contains(2L) ? Collections.singletonList(2L) : Collections.emptyList();
+                });
+
+        runJob(false);
+
+        assertThat(batchArgs("INSERT INTO career_recommendations")).extracting(row -> row[0])
+                .doesNotContain(2L).contains(1L, 5L);
+        assertThat(batchArgs("DELETE FROM career_recommendations")).extracting(row -> row[0])
+                .containsExactlyInAnyOrder(1L, 4L, 5L);
+        // Still counted: the worker owns their rows now
+        assertThat(savedCheckpoints).last().isEqualTo("5/5/1/true");
+    }
+
+    @Test
+    public void testPassesTheInputCountsReadForEachUser() throws InterruptedException {
+        runJob(false);
+
+        ArgumentCaptor<Object> userIds = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Object> inputs = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, atLeastOnce()).queryForList(startsWith("SELECT seen.user_id"), eq(Long.class),
+                userIds.capture(), inputs.capture(), any(), any(), any());
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i < userIds.getAllValues().size(); i++) {
+            Long[] ids = (Long[]) userIds.getAllValues().get(i);
+            Integer[] inputCounts = (Integer[]) inputs.getAllValues().get(i);
+            for (int j = 0; j < ids.length; j++) {
+                counts.put(ids[j], inputCounts[j]);
+            }
+        }
+        // The broken user is left out: it is not written either way
+        assertThat(counts).containsOnly(entry(1L, 1), entry(2L, 1), entry(4L, 0), entry(5L, 1));
+    }
+
+    @Test
+    public void testDoesNotStartWhileAnotherNodeHoldsTheLease() {
+        when(checkpointRepository.acquire(eq(RecommendationBatchJob.JOB_NAME), anyString(), any(), any())).thenReturn(0);
+
+        assertThat(job.start(false)).isFalse();
+        assertThat(job.isRunning()).isFalse();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void testStopsWithoutWritingOnceTheLeaseIsTakenOver() throws InterruptedException {
+        // Renewed for the fresh checkpoint, then lost before the first chunk is written
+        when(checkpointRepository.renew(eq(RecommendationBatchJob.JOB_NAME), anyString(), any())).thenReturn(1, 0);
+
+        runJob(false);
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertThat(savedCheckpoints).containsExactly("0/0/0/false");
+        verify(checkpointRepository).release(eq(RecommendationBatchJob.JOB_NAME), anyString());
+    }
+
+    private void runJob(boolean restart) throws InterruptedException {
+        assertThat(job.start(restart)).isTrue();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (job.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.isRunning()).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> batchArgs(String sqlPrefix) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith(sqlPrefix), captor.capture());
+        List<Object[]> rows = new ArrayList<>();
+        captor.getAllValues().forEach(rows::addAll);
+        return rows;
+    }
+
+    private static UserAssessment assessment(Long userId) {
+        Map<String, Object> interests = new HashMap<>();
+        interests.put("techInterests", Arrays.asList("Frontend", "JavaScript"));
+        interests.put("problemSolving", "creative");
+        UserAssessment assessment = new UserAssessment();
+        assessment.setUser(user(userId));
+        assessment.setAssessmentType(AssessmentProfile.INTEREST);
+        assessment.setProfile(userId == BROKEN_USER ? new byte[] {99}
+                : AssessmentProfile.parse(AssessmentProfile.INTEREST, interests).encode());
+        return assessment;
+    }
+}
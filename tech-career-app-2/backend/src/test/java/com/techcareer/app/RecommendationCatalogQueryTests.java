@@ -0,0 +1,102 @@
+package com.techcareer.app;
+
+import com.techcareer.app.model.CareerPath;
+import com.techcareer.app.model.JobRole;
+import com.techcareer.app.repository.CareerPathRepository;
+import com.techcareer.app.repository.JobRoleRepository;
+import com.techcareer.app.service.RecommendationSnapshot;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// schema.sql is PostgreSQL only; Hibernate creates the H2 schema instead
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class RecommendationCatalogQueryTests {
+
+    private static final int ROLES_PER_PATH = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CareerPathRepository careerPathRepository;
+
+    @Autowired
+    private JobRoleRepository jobRoleRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testCatalogLoadStatementCountIndependentOfCatalogSize() {
+        addPaths(0, 2);
+        long small = statementsToBuildSnapshot(2);
+
+        addPaths(2, 40);
+        long large = statementsToBuildSnapshot(40);
+
+        // One select for the paths and one for the roles joined with their paths
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    public void testRolesFetchTheirPathWithoutFurtherStatements() {
+        addPaths(0, 10);
+        entityManager.clear();
+        statistics.clear();
+
+        // Paths are not in the persistence context, so a lazy or per-row load would show up here
+        for (JobRole role : jobRoleRepository.findAllForRecommendations()) {
+            assertThat(role.getCareerPath().getName()).startsWith("Path ");
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private long statementsToBuildSnapshot(int expectedPaths) {
+        entityManager.clear();
+        statistics.clear();
+
+        RecommendationSnapshot snapshot = RecommendationSnapshot.build(careerPathRepository.findAll(),
+                jobRoleRepository.findAllForRecommendations());
+
+        assertThat(snapshot.size()).isEqualTo(expectedPaths);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addPaths(int from, int to) {
+        for (int i = from; i < to; i++) {
+            CareerPath path = new CareerPath();
+            path.setName("Path " + i);
+            path.setDescription("Description " + i);
+            path.setRequiredSkills("Skill " + i + ", Skill " + (i + 1));
+            path.setKeywords("keyword" + i);
+            entityManager.persist(path);
+            for (int r = 0; r < ROLES_PER_PATH; r++) {
+                JobRole role = new JobRole();
+                role.setCareerPath(path);
+                role.setTitle("Role " + i + "." + r);
+                role.setDescription("Description");
+                role.setResponsibilities("Responsibilities");
+                role.setRequiredSkills("Skill " + i);
+                entityManager.persist(role);
+            }
+        }
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,59 @@
+package com.techcareer.app;
+
+import com.techcareer.app.model.CareerPath;
+import com.techcareer.app.model.JobRole;
+import com.techcareer.app.model.Skill;
+import com.techcareer.app.model.User;
+import com.techcareer.app.model.UserSkill;
+
+/**
+ * Catalog and user entities shared by the recommendation tests.
+ */
+final class RecommendationFixtures {
+
+    private RecommendationFixtures() {
+    }
+
+    static CareerPath path(Long id, String name, String keywords, String skills) {
+        CareerPath path = new CareerPath();
+        path.setId(id);
+        path.setName(name);
+        path.setKeywords(keywords);
+        path.setRequiredProblemSolvingApproach("creative,analytical");
+        path.setTypicalWorkEnvironment("remote");
+        path.setTypicalTeamSize("small");
+        path.setWorkCulture("collaborative");
+        path.setMinimumComputerRequirements("standard");
+        path.setMinimumInternetRequirements("moderate");
+        path.setRecommendedTimeCommitment("part-time");
+        path.setRequiredSkills(skills);
+        return path;
+    }
+
+    static JobRole role(Long id, String title, CareerPath path, String skills) {
+        JobRole role = new JobRole();
+        role.setId(id);
+        role.setTitle(title);
+        role.setCareerPath(path);
+        role.setRequiredSkills(skills);
+        return role;
+    }
+
+    static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    // Intermediate and marked as a strength
+    static UserSkill javascriptSkill() {
+        Skill skill = new Skill();
+        skill.setId(1L);
+        skill.setName("JavaScript");
+        UserSkill userSkill = new UserSkill();
+        userSkill.setSkill(skill);
+        userSkill.setProficiencyLevel("Intermediate");
+        userSkill.setIsStrength(true);
+        return userSkill;
+    }
+}
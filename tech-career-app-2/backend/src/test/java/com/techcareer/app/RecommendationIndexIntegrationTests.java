@@ -0,0 +1,65 @@
+package com.techcareer.app;
+
+import com.techcareer.app.model.CareerPath;
+import com.techcareer.app.repository.CareerPathRepository;
+import com.techcareer.app.service.RecommendationIndex;
+import com.techcareer.app.service.RecommendationSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// schema.sql is PostgreSQL only; Hibernate creates the H2 schema instead
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recommendation-index",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+public class RecommendationIndexIntegrationTests {
+
+    @Autowired
+    private RecommendationIndex recommendationIndex;
+
+    @Autowired
+    private CareerPathRepository careerPathRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testSavingACareerPathRebuildsTheSnapshot() {
+        RecommendationSnapshot before = recommendationIndex.snapshot();
+
+        CareerPath path = new CareerPath();
+        path.setName("Saved Path");
+        path.setDescription("Description");
+        path.setRequiredSkills("SQL");
+        careerPathRepository.save(path);
+
+        RecommendationSnapshot after = recommendationIndex.snapshot();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.size()).isEqualTo(before.size() + 1);
+    }
+
+    @Test
+    public void testChangeFromAnotherNodeIsPickedUpByTheVersionCheck() {
+        RecommendationSnapshot before = recommendationIndex.snapshot();
+
+        // Written straight to the table, as another node's commit would be: no event reaches this node
+        jdbcTemplate.update("insert into career_paths (name, description, required_skills, created_at, updated_at) "
+                + "values (?, ?, ?, ?, ?)", "Remote Path", "Description", "SQL", LocalDateTime.now(), LocalDateTime.now());
+        assertThat(recommendationIndex.snapshot()).isSameAs(before);
+
+        recommendationIndex.checkForChanges();
+
+        RecommendationSnapshot after = recommendationIndex.snapshot();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.size()).isEqualTo(before.size() + 1);
+    }
+}
@@ -0,0 +1,346 @@
+package com.techcareer.app;
+
+import com.techcareer.app.model.*;
+import com.techcareer.app.repository.CareerRecommendationRepository;
+import com.techcareer.app.repository.RecommendationRefreshMarkerRepository;
+import com.techcareer.app.repository.UserRepository;
+import com.techcareer.app.repository.UserSkillRepository;
+import com.techcareer.app.service.AssessmentProfileService;
+import com.techcareer.app.service.CareerRecommendationService;
+import com.techcareer.app.service.RecommendationIndex;
+import com.techcareer.app.service.RecommendationInputChangedEvent;
+import com.techcareer.app.service.RecommendationRefreshWorker;
+import com.techcareer.app.service.RecommendationSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.techcareer.app.RecommendationFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RecommendationRefreshWorkerTests {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    @Mock
+    private AssessmentProfileService assessmentProfileService;
+
+    @Mock
+    private UserSkillRepository userSkillRepository;
+
+    @Mock
+    private RecommendationIndex recommendationIndex;
+
+    @Mock
+    private CareerRecommendationRepository careerRecommendationRepository;
+
+    @Mock
+    private RecommendationRefreshMarkerRepository refreshMarkerRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecommendationRefreshWorker worker;
+
+    private RecommendationRefreshWorker.InputListener inputListener;
+
+    private JobRole frontend;
+    private JobRole fullStack;
+    private JobRole analyst;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        CareerPath web = path(1L, "Web Development", "web, frontend,javascript", "JavaScript");
+        CareerPath data = path(2L, "Data Analysis", "data,statistics", "SQL");
+        frontend = role(10L, "Frontend Developer", web, "JavaScript");
+        fullStack = role(11L, "Full Stack Developer", web, "JavaScript, SQL");
+        analyst = role(20L, "Data Analyst", data, "SQL");
+        when(recommendationIndex.snapshot()).thenReturn(RecommendationSnapshot.build(
+                Arrays.asList(web, data), Arrays.asList(frontend, fullStack, analyst)));
+
+        when(assessmentProfileService.forUser(anyLong())).thenReturn(Optional.of(interestedInFrontend()));
+        when(userSkillRepository.findByUserId(anyLong())).thenReturn(Collections.singletonList(javascriptSkill()));
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+
+        CareerRecommendationService recommendationService = new CareerRecommendationService();
+        ReflectionTestUtils.setField(recommendationService, "assessmentProfileService", assessmentProfileService);
+        ReflectionTestUtils.setField(recommendationService, "userSkillRepository", userSkillRepository);
+
+        worker = new RecommendationRefreshWorker();
+        ReflectionTestUtils.setField(worker, "careerRecommendationService", recommendationService);
+        ReflectionTestUtils.setField(worker, "recommendationIndex", recommendationIndex);
+        ReflectionTestUtils.setField(worker, "assessmentProfileService", assessmentProfileService);
+        ReflectionTestUtils.setField(worker, "careerRecommendationRepository", careerRecommendationRepository);
+        ReflectionTestUtils.setField(worker, "refreshMarkerRepository", refreshMarkerRepository);
+        ReflectionTestUtils.setField(worker, "userRepository", userRepository);
+        ReflectionTestUtils.setField(worker, "transactionManager", transactionManager);
+        // One thread, so every user shares a queue
+        ReflectionTestUtils.setField(worker, "threads", 1);
+        ReflectionTestUtils.setField(worker, "maxRecommendations", 10);
+        ReflectionTestUtils.setField(worker, "cachedUsers", 100);
+        // Far enough out that the retry thread stays idle during a test
+        ReflectionTestUtils.setField(worker, "retryDelaySeconds", 60L);
+        worker.start();
+
+        // Delivers entity changes the way they arrive once the saving transaction commits
+        inputListener = new RecommendationRefreshWorker.InputListener();
+        ApplicationEventPublisher publisher = event -> worker.onInputChanged((RecommendationInputChangedEvent) event);
+        ReflectionTestUtils.setField(inputListener, "publisher", publisher);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        worker.stop();
+    }
+
+    @Test
+    public void testStoreUpdatesKeptRowsAndDeletesDroppedOnes() {
+        CareerRecommendation kept = recommendation(100L, frontend, 10);
+        CareerRecommendation dropped = recommendation(101L, analyst, 80);
+        when(careerRecommendationRepository.findByUserOrderByMatchPercentageDesc(any()))
+                .thenReturn(Arrays.asList(kept, dropped));
+
+        worker.requestRefresh(1L);
+
+        List<CareerRecommendation> saved = savedRows(1).get(0);
+        assertThat(saved).extracting(r -> r.getJobRole().getTitle())
+                .containsExactly("Frontend Developer", "Full Stack Developer");
+        // The existing row is updated in place, the new role gets a new row
+        assertThat(saved.get(0)).isSameAs(kept);
+        assertThat(kept.getMatchPercentage()).isEqualTo(69);
+        assertThat(saved.get(1).getId()).isNull();
+        assertThat(saved.get(1).getUser().getId()).isEqualTo(1L);
+        assertThat(deletedRows(1).get(0)).containsExactly(dropped);
+    }
+
+    @Test
+    public void testScoresPathsFromPrecomputedVectors() {
+        // Skill and keyword spellings as entered in the catalog; the snapshot normalizes them
+        CareerPath web = path(1L, "Web Development", "web, frontend,javascript", "JavaScript");
+        CareerPath data = path(2L, "Data Analysis", "data,statistics", "SQL");
+        when(recommendationIndex.snapshot()).thenReturn(RecommendationSnapshot.build(Arrays.asList(web, data),
+                Arrays.asList(role(10L, "Frontend Developer", web, " javascript"),
+                        role(11L, "Full Stack Developer", web, "JavaScript, SQL"),
+                        role(20L, "Data Analyst", data, "sql"))));
+        Map<String, Object> roles = new HashMap<>();
+        roles.put("selectedRoles", Collections.singletonList("Full Stack Developer"));
+        roles.put("rolePreferences", Collections.singletonMap("Full Stack Developer", "5"));
+        when(assessmentProfileService.forUser(1L)).thenReturn(Optional.of(
+                interestedInFrontend().merge(AssessmentProfile.parse(AssessmentProfile.JOB_ROLE, roles))));
+        when(careerRecommendationRepository.findByUserOrderByMatchPercentageDesc(any()))
+                .thenReturn(Collections.emptyList());
+
+        worker.requestRefresh(1L);
+
+        List<CareerRecommendation> saved = savedRows(1).get(0);
+        // Data Analysis only gets the problem-solving bonus and falls below the stored minimum
+        // Frontend: skill match 76.7; Full Stack: (interest 100 + skill match 38.3) / 2
+        assertThat(saved).extracting(r -> r.getJobRole().getTitle())
+                .containsExactly("Frontend Developer", "Full Stack Developer");
+        // Interest: 2 of 3 keywords plus the problem-solving bonus; skills: Intermediate + strength; no work style/access
+        double expected = 0.35 * (2.0 / 3 * 100 + 10) + 0.35 * (2.0 / 3 * 100 + 10) + 0.2 * 50 + 0.1 * 50;
+        assertThat(saved).allSatisfy(r -> {
+            assertThat(r.getUser().getId()).isEqualTo(1L);
+            assertThat(r.getMatchPercentage()).isEqualTo((int) Math.round(expected));
+            assertThat(r.getReasoning()).startsWith("Web Development fits your technology interests, your current skills.");
+        });
+    }
+
+    @Test
+    public void testScoresUsersWithSkillsButNoAssessments() {
+        when(assessmentProfileService.forUser(1L)).thenReturn(Optional.empty());
+        when(careerRecommendationRepository.findByUserOrderByMatchPercentageDesc(any()))
+                .thenReturn(Collections.emptyList());
+
+        worker.requestRefresh(1L);
+
+        // Every assessment factor at its default of 50; Data Analysis just clears the stored minimum on those alone
+        List<CareerRecommendation> saved = savedRows(1).get(0);
+        assertThat(saved).extracting(r -> r.getJobRole().getTitle())
+                .containsExactly("Frontend Developer", "Full Stack Developer", "Data Analyst");
+        long web = Math.round(0.35 * 50 + 0.35 * (2.0 / 3 * 100 + 10) + 0.2 * 50 + 0.1 * 50);
+        assertThat(saved).extracting(CareerRecommendation::getMatchPercentage)
+                .containsExactly((int) web, (int) web, (int) Math.round(0.35 * 50 + 0.2 * 50 + 0.1 * 50));
+    }
+
+    @Test
+    public void testDeletesRowsOnceNoAssessmentsOrSkillsAreLeft() {
+        CareerRecommendation stale = recommendation(100L, frontend, 69);
+        when(careerRecommendationRepository.findByUserOrderByMatchPercentageDesc(any()))
+                .thenReturn(Collections.singletonList(stale));
+        when(assessmentProfileService.forUser(1L)).thenReturn(Optional.empty());
+        when(userSkillRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+
+        worker.requestRefresh(1L);
+
+        assertThat(deletedRows(1).get(0)).containsExactly(stale);
+        assertThat(savedRows(1).get(0)).isEmpty();
+    }
+
+    @Test
+    public void testCoalescesChangesQueuedDuringARefresh() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(assessmentProfileService.forUser(1L)).thenAnswer(invocation -> {
+            release.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return Optional.of(interestedInFrontend());
+        });
+        worker.requestRefresh(1L);
+        verify(assessmentProfileService, timeout(TIMEOUT_MS)).forUser(1L);
+
+        // User 1 holds the only thread, so these three changes wait in the queue together
+        inputListener.inputChanged(assessment(2L, AssessmentProfile.INTEREST));
+        inputListener.inputChanged(skillOf(2L));
+        inputListener.inputChanged(assessment(2L, AssessmentProfile.WORK_STYLE));
+        release.countDown();
+
+        savedRows(2);
+        verify(assessmentProfileService, times(1)).forUser(2L);
+        verify(userSkillRepository, times(1)).findByUserId(2L);
+        verify(refreshMarkerRepository, times(3)).mark(eq(2L), anyInt(), any());
+    }
+
+    @Test
+    public void testRecomputesOnlyChangedComponents() {
+        when(careerRecommendationRepository.findByUserOrderByMatchPercentageDesc(any()))
+                .thenReturn(Collections.emptyList());
+        worker.requestRefresh(1L);
+        assertThat(savedRows(1).get(0).get(0).getMatchPercentage()).isEqualTo(69);
+        clearInvocations(assessmentProfileService);
+
+        // The user retakes the interest assessment without matching anything
+        Map<String, Object> interests = new HashMap<>();
+        interests.put("techInterests", Collections.singletonList("Gaming"));
+        interests.put("problemSolving", "hands-on");
+        when(assessmentProfileService.forUser(1L))
+                .thenReturn(Optional.of(AssessmentProfile.parse(AssessmentProfile.INTEREST, interests)));
+
+        // A skill change alone keeps the previously computed interest score
+        inputListener.inputChanged(skillOf(1L));
+        assertThat(savedRows(2).get(1).get(0).getMatchPercentage()).isEqualTo(69);
+        verify(assessmentProfileService, never()).evict(1L);
+
+        inputListener.inputChanged(assessment(1L, AssessmentProfile.INTEREST));
+        // Interest 0; skills Intermediate + strength; no work style or access
+        long expected = Math.round(0.35 * (2.0 / 3 * 100 + 10) + 0.2 * 50 + 0.1 * 50);
+        assertThat(savedRows(3).get(2).get(0).getMatchPercentage()).isEqualTo((int) expected);
+        // Evicted once after the commit and again by the refresh itself
+        verify(assessmentProfileService, times(2)).evict(1L);
+    }
+
+    @Test
+    public void testClearsMarkerAfterStoring() {
+        when(refreshMarkerRepository.findById(1L)).thenReturn(Optional.of(marker(1L, 3L, 0)));
+
+        worker.requestRefresh(1L);
+
+        verify(refreshMarkerRepository, timeout(TIMEOUT_MS)).clear(1L, 3L);
+        verify(refreshMarkerRepository, never()).deferRetry(anyLong(), any());
+    }
+
+    @Test
+    public void testFailedRefreshBacksOffThroughItsMarker() {
+        when(refreshMarkerRepository.findById(1L)).thenReturn(Optional.of(marker(1L, 3L, 2)));
+        when(assessmentProfileService.forUser(1L)).thenThrow(new IllegalStateException("database unavailable"));
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.requestRefresh(1L);
+
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(refreshMarkerRepository, timeout(TIMEOUT_MS)).deferRetry(eq(1L), nextAttempt.capture());
+        // Third attempt: 60 s doubled twice
+        assertThat(nextAttempt.getValue()).isBetween(before.plusSeconds(240), LocalDateTime.now().plusSeconds(240));
+        verify(refreshMarkerRepository, never()).clear(anyLong(), anyLong());
+        verify(careerRecommendationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testRetryBackoffIsCappedAtAnHour() {
+        when(refreshMarkerRepository.findById(1L)).thenReturn(Optional.of(marker(1L, 3L, 10)));
+        when(assessmentProfileService.forUser(1L)).thenThrow(new IllegalStateException("database unavailable"));
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.requestRefresh(1L);
+
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(refreshMarkerRepository, timeout(TIMEOUT_MS)).deferRetry(eq(1L), nextAttempt.capture());
+        // 60 s doubled ten times would be over 17 hours
+        assertThat(nextAttempt.getValue()).isBetween(before.plusSeconds(3600), LocalDateTime.now().plusSeconds(3600));
+    }
+
+    @Test
+    public void testFailedRefreshWithoutMarkerRecordsOne() {
+        when(assessmentProfileService.forUser(1L)).thenThrow(new IllegalStateException("database unavailable"));
+
+        worker.requestRefresh(1L);
+
+        verify(refreshMarkerRepository, timeout(TIMEOUT_MS)).mark(eq(1L), anyInt(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<CareerRecommendation>> savedRows(int times) {
+        ArgumentCaptor<List<CareerRecommendation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(careerRecommendationRepository, timeout(TIMEOUT_MS).times(times)).saveAll(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Collection<CareerRecommendation>> deletedRows(int times) {
+        ArgumentCaptor<Collection<CareerRecommendation>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(careerRecommendationRepository, timeout(TIMEOUT_MS).times(times)).deleteAllInBatch(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static AssessmentProfile interestedInFrontend() {
+        Map<String, Object> interests = new HashMap<>();
+        interests.put("techInterests", Arrays.asList("Frontend", "JavaScript"));
+        interests.put("problemSolving", "creative");
+        return AssessmentProfile.parse(AssessmentProfile.INTEREST, interests);
+    }
+
+    private static UserAssessment assessment(Long userId, String type) {
+        UserAssessment assessment = new UserAssessment();
+        assessment.setUser(user(userId));
+        assessment.setAssessmentType(type);
+        return assessment;
+    }
+
+    private static UserSkill skillOf(Long userId) {
+        UserSkill userSkill = javascriptSkill();
+        userSkill.setUser(user(userId));
+        return userSkill;
+    }
+
+    private static CareerRecommendation recommendation(Long id, JobRole role, int matchPercentage) {
+        CareerRecommendation recommendation = new CareerRecommendation();
+        recommendation.setId(id);
+        recommendation.setUser(user(1L));
+        recommendation.setJobRole(role);
+        recommendation.setMatchPercentage(matchPercentage);
+        recommendation.setReasoning("Earlier reasoning");
+        return recommendation;
+    }
+
+    private static RecommendationRefreshMarker marker(Long userId, Long version, int attempts) {
+        return new RecommendationRefreshMarker(userId, 2, version, attempts, LocalDateTime.now());
+    }
+}